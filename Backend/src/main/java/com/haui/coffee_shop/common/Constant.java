@@ -19,4 +19,6 @@ public class Constant {
 
         public static final String UNAUTHORIZED = "401";
 
+        public static final double SHIPPING_FEE = 10000;
+
 }
@@ -0,0 +1,41 @@
+package com.haui.coffee_shop.common;
+
+import com.haui.coffee_shop.exception.CoffeeShopException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor token for keyset pagination: the parts of the last row's sort key are joined with
+ * '|' and base64url encoded. Parts must not contain '|'.
+ */
+public final class CursorCodec {
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(parts[i] == null ? "" : parts[i].toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Unexpected cursor size");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"cursor"}, "Cursor not valid");
+        }
+    }
+}
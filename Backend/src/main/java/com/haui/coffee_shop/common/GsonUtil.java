@@ -2,14 +2,27 @@ package com.haui.coffee_shop.common;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
 @NoArgsConstructor
 public class GsonUtil {
 
+    // Cùng định dạng ngày mà Jackson của Spring Boot ghi ra (ISO-8601, UTC) để hai converter trả về JSON giống nhau
+    private static final DateTimeFormatter ISO_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx")
+            .withZone(ZoneOffset.UTC);
+
     private static final Gson gson = new GsonBuilder().
             disableHtmlEscaping()
             .serializeNulls()
+            .registerTypeHierarchyAdapter(Date.class, (JsonSerializer<Date>) (date, type, context) ->
+                    new JsonPrimitive(ISO_DATE.format(Instant.ofEpochMilli(date.getTime()))))
             .create();
 
     public static Gson getInstance() {
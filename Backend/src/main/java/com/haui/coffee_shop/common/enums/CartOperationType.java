@@ -0,0 +1,9 @@
+package com.haui.coffee_shop.common.enums;
+
+public enum CartOperationType {
+    // Cộng thêm số lượng, tạo dòng mới nếu chưa có
+    ADD,
+    // Đặt số lượng, tạo dòng mới nếu chưa có
+    SET,
+    REMOVE
+}
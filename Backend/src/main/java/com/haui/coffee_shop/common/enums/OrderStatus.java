@@ -5,5 +5,22 @@ public enum OrderStatus {
     Processed,
     Shipping,
     Completed,
-    Cancelled
+    Cancelled;
+
+    // Trạng thái kế tiếp khi nhân viên xử lý đơn, null nếu đơn đã kết thúc
+    public OrderStatus next() {
+        return switch (this) {
+            case Processing -> Processed;
+            case Processed -> Shipping;
+            case Shipping -> Completed;
+            case Completed, Cancelled -> null;
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        if (target == Cancelled) {
+            return this == Processing;
+        }
+        return target != null && target == next();
+    }
 }
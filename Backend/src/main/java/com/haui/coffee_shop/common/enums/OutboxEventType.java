@@ -0,0 +1,8 @@
+package com.haui.coffee_shop.common.enums;
+
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_CANCELLED,
+    REVIEW_CREATED
+}
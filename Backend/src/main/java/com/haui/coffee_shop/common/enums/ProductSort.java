@@ -0,0 +1,30 @@
+package com.haui.coffee_shop.common.enums;
+
+public enum ProductSort {
+    NEWEST("newest"),
+    PRICE("price"),
+    BEST_SELLING("best-selling"),
+    RATING("rating");
+
+    private final String value;
+
+    ProductSort(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static ProductSort fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.value.equalsIgnoreCase(value) || sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
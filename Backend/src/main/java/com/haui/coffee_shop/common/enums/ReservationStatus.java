@@ -0,0 +1,7 @@
+package com.haui.coffee_shop.common.enums;
+
+public enum ReservationStatus {
+    ACTIVE,
+    CONVERTED,
+    RELEASED
+}
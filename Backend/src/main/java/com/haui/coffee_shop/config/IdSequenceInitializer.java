@@ -0,0 +1,67 @@
+package com.haui.coffee_shop.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * order / order_item / cart_item chuyển từ IDENTITY sang sequence (MySQL dùng bảng *_seq giả lập). Trước khi
+ * entityManagerFactory được tạo, đẩy next_val vượt qua id lớn nhất đang có để khối id đầu tiên không trùng với dữ liệu cũ.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IdSequenceInitializer implements InitializingBean {
+    private static final int ALLOCATION_SIZE = 50;
+
+    // bảng sequence -> bảng dữ liệu
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "order_seq", "order",
+            "order_item_seq", "order_item",
+            "cart_item_seq", "cart_item"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        SEQUENCES.forEach((sequence, table) -> {
+            // Cùng cấu trúc Hibernate tạo cho sequence giả lập, ddl-auto=update sẽ giữ nguyên bảng đã có
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + sequence + " (next_val bigint) engine=InnoDB");
+            long nextValue = tableExists(table)
+                    ? jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM `" + table + "`", Long.class) + ALLOCATION_SIZE + 1
+                    : 1;
+            Long current = jdbcTemplate.queryForObject("SELECT MAX(next_val) FROM " + sequence, Long.class);
+            if (current == null) {
+                jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) VALUES (?)", nextValue);
+                log.info("Created {} at {}", sequence, nextValue);
+            } else if (current < nextValue) {
+                jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", nextValue, nextValue);
+                log.info("Moved {} to {}", sequence, nextValue);
+            }
+        });
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Bắt entityManagerFactory chờ bean này, nên không phiên Hibernate nào (kể cả job @Scheduled, DataInitializer)
+     * cấp id từ sequence chưa được đẩy.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnIdSequences extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnIdSequences() {
+            super(IdSequenceInitializer.class);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.haui.coffee_shop.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler whose {@link com.haui.coffee_shop.payload.response.RespMessage} has always been written
+ * by Jackson. {@link RespMessageHttpMessageConverter} skips these so their wire format stays exactly as
+ * clients know it; dates and field names are kept identical across both converters.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JacksonResponse {
+}
@@ -0,0 +1,75 @@
+package com.haui.coffee_shop.config;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.payload.response.RespMessage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes {@link RespMessage} with the shared Gson instance straight to the response output stream,
+ * so the envelope and its data are never materialized as an intermediate String. Handlers marked
+ * {@link JacksonResponse} are left to Jackson.
+ */
+public class RespMessageHttpMessageConverter extends AbstractHttpMessageConverter<RespMessage> {
+
+    public RespMessageHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RespMessage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return super.canWrite(clazz, mediaType) && !isJacksonHandler();
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RespMessage readInternal(Class<? extends RespMessage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("RespMessage is a response-only type", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(RespMessage respMessage, HttpOutputMessage outputMessage) throws IOException {
+        Gson gson = GsonUtil.getInstance();
+        // OutputStreamWriter bọc mỗi lần ghi token trong một CharBuffer mới; gom lại qua bộ đệm để không cấp phát theo token
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputMessage.getBody(), StandardCharsets.UTF_8));
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        gson.toJson(respMessage, RespMessage.class, jsonWriter);
+        jsonWriter.flush();
+    }
+
+    private static boolean isJacksonHandler() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object handler = attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return handler instanceof HandlerMethod handlerMethod
+                && (handlerMethod.hasMethodAnnotation(JacksonResponse.class)
+                || handlerMethod.getBeanType().isAnnotationPresent(JacksonResponse.class));
+    }
+}
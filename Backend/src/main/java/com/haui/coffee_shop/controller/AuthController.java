@@ -8,7 +8,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.config.JacksonResponse;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.request.ChangePasswordDTO;
@@ -25,60 +25,61 @@ public class AuthController {
     public final MessageBuilder messageBuilder;
 
     @RequestMapping(value = "/login", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<RespMessage> login(@RequestBody LoginRequest loginRequest) {
         try {
             RespMessage response = authService.login(loginRequest);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.OK);
+            return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/register", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> register(@RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<RespMessage> register(@RequestBody RegisterRequest registerRequest) {
         try {
             RespMessage response = authService.register(registerRequest);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.OK);
+            return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (CoffeeShopException e){
             RespMessage response = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage response = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/user-details", method = RequestMethod.GET)
-    public ResponseEntity<String> getAccount() {
+    public ResponseEntity<RespMessage> getAccount() {
         try {
             RespMessage response = authService.getProfileByToken();
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.OK);
+            return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage response = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
     }
 
     @RequestMapping(value = "/password", method = RequestMethod.POST)
-    public ResponseEntity<String> changePassword(@RequestBody ChangePasswordDTO changePasswordDTO) {
+    public ResponseEntity<RespMessage> changePassword(@RequestBody ChangePasswordDTO changePasswordDTO) {
         try {
             RespMessage response = authService.changePassword(changePasswordDTO);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.OK);
+            return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage response = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage response = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(response), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @JacksonResponse
     @PostMapping("/refresh-token")
     public ResponseEntity<RespMessage> refreshAccessToken(@RequestHeader("Authorization") String refreshToken) {
         RespMessage response = authService.refreshAccessToken(refreshToken);
@@ -7,10 +7,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.payload.request.CartBulkRequest;
 import com.haui.coffee_shop.payload.request.CartItemRequest;
+import com.haui.coffee_shop.payload.request.GuestCartMergeRequest;
 import com.haui.coffee_shop.payload.response.RespMessage;
 import com.haui.coffee_shop.service.CartService;
 
@@ -22,60 +23,107 @@ public class CartController {
     private final CartService cartService;
     public final MessageBuilder messageBuilder;
     @RequestMapping(value = "user/{userId}", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getCartItems(@PathVariable Long userId) {
+    public ResponseEntity<RespMessage> getCartItems(@PathVariable Long userId) {
         try {
             RespMessage resp = cartService.getCartItems(userId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    // Giỏ hàng kèm thành tiền từng dòng, tạm tính, phí ship và tổng
+    @RequestMapping(value = "user/{userId}/view", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> getCart(@PathVariable Long userId) {
+        try {
+            RespMessage resp = cartService.getCart(userId);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
+        }
+        catch (Exception e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
     @RequestMapping(value = "/item", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> addCartItem(@RequestBody CartItemRequest request) {
+    public ResponseEntity<RespMessage> addCartItem(@RequestBody CartItemRequest request) {
         try {
             RespMessage resp = cartService.addCartItem(request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/item", method = RequestMethod.PUT, produces = "application/json")
-    public ResponseEntity<String> updateCartItem(@RequestBody CartItemRequest request) {
+    public ResponseEntity<RespMessage> updateCartItem(@RequestBody CartItemRequest request) {
         try {
             RespMessage resp = cartService.updateCartItem(request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
+        }
+        catch (Exception e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    // Nhiều thao tác add / set / remove trong một request, trả về giỏ sau khi áp dụng
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST, produces = "application/json")
+    public ResponseEntity<RespMessage> applyOperations(@RequestBody CartBulkRequest request) {
+        try {
+            RespMessage resp = cartService.applyOperations(request);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // Gọi ngay sau khi đăng nhập để gộp giỏ khách (token phía client) vào giỏ của người dùng
+    @RequestMapping(value = "/merge-guest", method = RequestMethod.POST, produces = "application/json")
+    public ResponseEntity<RespMessage> mergeGuestCart(@RequestBody GuestCartMergeRequest request) {
+        try {
+            RespMessage resp = cartService.mergeGuestCart(request);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
+        }
+        catch (Exception e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @RequestMapping(value = "/item/{itemId}" , method = RequestMethod.DELETE , produces = "application/json")
-    public ResponseEntity<String> deleteCartItem(@PathVariable Long itemId) {
+    public ResponseEntity<RespMessage> deleteCartItem(@PathVariable Long itemId) {
         try {
             RespMessage resp = cartService.deleteCartItem(itemId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 }
@@ -2,7 +2,6 @@ package com.haui.coffee_shop.controller;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.Category;
@@ -31,64 +30,64 @@ public class CategoryController {
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json",
                         consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> addCategory(@RequestParam("name") String name, @RequestParam("description") String description, @RequestParam("articleTitle") String articleTitle,
+    public ResponseEntity<RespMessage> addCategory(@RequestParam("name") String name, @RequestParam("description") String description, @RequestParam("articleTitle") String articleTitle,
     		@RequestParam("article") String article,@RequestParam(value = "image", required = false) MultipartFile imageFile) {
         try {
             RespMessage respMessage = categoryService.addCategory(name, description,articleTitle,article, imageFile);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         }
         catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
 
     }
 
     @RequestMapping(value = "/all" , method = RequestMethod.GET , produces = "application/json")
-    public ResponseEntity<String> getAllCategory () {
+    public ResponseEntity<RespMessage> getAllCategory () {
         RespMessage respMessage = categoryService.getAllCategories();
-        return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
     }
 
     @RequestMapping(value = "/{id}" , method = RequestMethod.GET , produces = "application/json")
-    public ResponseEntity<String> getCategory (@PathVariable long id) {
+    public ResponseEntity<RespMessage> getCategory (@PathVariable long id) {
         try {
             RespMessage respMessage = categoryService.getCategoryById(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
     }
 
     @RequestMapping(value = "/{id}" , method = RequestMethod.PUT , produces = "application/json",
                     consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> updateCategory (@PathVariable Long id,
+    public ResponseEntity<RespMessage> updateCategory (@PathVariable Long id,
                                                   @RequestParam("name") String name, @RequestParam("description") String description,String articleTitle, String article,
                                                   @RequestParam(value = "image", required = false) MultipartFile imageFile) {
         try {
             RespMessage respMessage = categoryService.updateCategory(id,name, description,articleTitle,article, imageFile);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
     }
 
     @RequestMapping(value = "/{id}" , method = RequestMethod.DELETE , produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> deleteCategory (@PathVariable long id) {
+    public ResponseEntity<RespMessage> deleteCategory (@PathVariable long id) {
         try {
             RespMessage respMessage = categoryService.deleteCategory(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.haui.coffee_shop.config.JacksonResponse;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.request.FavoriteProductRequest;
@@ -17,6 +18,7 @@ import com.haui.coffee_shop.service.FavoriteProductService;
 @AllArgsConstructor
 @PreAuthorize("hasRole('ROLE_USER')")
 @RequestMapping("/api/favorites")
+@JacksonResponse
 public class FavoriteProductController {
     private final FavoriteProductService favoriteProductService;
     public final MessageBuilder messageBuilder;
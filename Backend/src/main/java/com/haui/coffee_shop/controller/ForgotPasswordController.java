@@ -7,7 +7,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.ForgotPassword;
@@ -35,7 +34,7 @@ public class ForgotPasswordController {
     private final MessageBuilder messageBuilder;
 
     @PostMapping("/verifyEmail/{email}")
-    public ResponseEntity<String> verifyEmail(@PathVariable String email) {
+    public ResponseEntity<RespMessage> verifyEmail(@PathVariable String email) {
         try{
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Email"} ,"Email không tồn tại"));
@@ -65,22 +64,22 @@ public class ForgotPasswordController {
             forgotPasswordRepository.save(forgotPassword);
 
             RespMessage respMessage = messageBuilder.buildSuccessMessage("OTP has been sent to your email");
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         }
         catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
     }
 
 
     @PostMapping("/verifyOtp/{otp}/{email}")
-    public ResponseEntity<String> verifyOtp(@PathVariable Integer otp ,@PathVariable String email) {
+    public ResponseEntity<RespMessage> verifyOtp(@PathVariable Integer otp ,@PathVariable String email) {
         try {
             Optional<User> optionalUser = userRepository.findByEmail(email);
             if(optionalUser.isEmpty()){
@@ -101,22 +100,22 @@ public class ForgotPasswordController {
             }
 
             RespMessage respMessage = messageBuilder.buildSuccessMessage("OTP has been verified");
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         }
         catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
     }
 
 
     @PostMapping("/changePassword/{email}")
-    public ResponseEntity<String> changePasswordHandle(@RequestBody ChangePassword changePassword , @PathVariable String email) {
+    public ResponseEntity<RespMessage> changePasswordHandle(@RequestBody ChangePassword changePassword , @PathVariable String email) {
         try{
             if (!changePassword.password().equals(changePassword.repeatPassword())) {
                 throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Repeat Password"} ,"Password không trùng khớp");
@@ -130,15 +129,15 @@ public class ForgotPasswordController {
                 forgotPasswordRepository.deleteByUser(user);
             }
             RespMessage respMessage = messageBuilder.buildSuccessMessage("Password has been changed!");
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         }
         catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
         catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
     }
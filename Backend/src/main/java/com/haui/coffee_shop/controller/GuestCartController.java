@@ -0,0 +1,52 @@
+package com.haui.coffee_shop.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.payload.request.GuestCartRequest;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.CartService;
+
+// Giỏ hàng của khách chưa đăng nhập, không cần tài khoản
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/guest-cart")
+public class GuestCartController {
+    private final CartService cartService;
+    public final MessageBuilder messageBuilder;
+
+    @RequestMapping(value = "", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> getGuestCart(@RequestParam(value = "token", required = false) String token) {
+        try {
+            RespMessage resp = cartService.getGuestCart(token);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
+        }
+        catch (Exception e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST, produces = "application/json")
+    public ResponseEntity<RespMessage> applyOperations(@RequestBody GuestCartRequest request) {
+        try {
+            RespMessage resp = cartService.applyGuestOperations(request);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
+        }
+        catch (Exception e) {
+            RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -3,13 +3,13 @@ package com.haui.coffee_shop.controller;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.config.OnlinePaymentConfig;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.Transaction;
 import com.haui.coffee_shop.payload.response.PaymentResponse;
 import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.IdempotencyService;
 import com.haui.coffee_shop.service.OnlinePaymentService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,15 +35,16 @@ public class OnlinePaymentController {
 
     private final MessageBuilder messageBuilder;
     private final OnlinePaymentService onlinePaymentService;
+    private final IdempotencyService idempotencyService;
 
     @RequestMapping(value = "",method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> createOnlinePayment(@RequestParam("amount") int amount, HttpServletRequest request ) {
+    public ResponseEntity<RespMessage> createOnlinePayment(@RequestParam("amount") int amount, HttpServletRequest request ) {
         try {
             RespMessage respMessage = onlinePaymentService.createVNPayPayment(amount,request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.SYSTEM_ERROR, null, HttpStatus.INTERNAL_SERVER_ERROR);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
@@ -53,17 +54,20 @@ public class OnlinePaymentController {
     }
 
     @RequestMapping(value = "",method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> handleVNPayRefund(@RequestParam("orderId") long orderId, HttpServletRequest request) {
-        try {
-            RespMessage respMessage = onlinePaymentService.handleVNPayRefund(orderId, request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
-        } catch (CoffeeShopException e) {
-            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
-        } catch (Exception e) {
-            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.SYSTEM_ERROR, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public ResponseEntity<RespMessage> handleVNPayRefund(@RequestParam("orderId") long orderId, HttpServletRequest request,
+                                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "refund", orderId, () -> {
+            try {
+                RespMessage respMessage = onlinePaymentService.handleVNPayRefund(orderId, request);
+                return new ResponseEntity<>(respMessage, HttpStatus.OK);
+            } catch (CoffeeShopException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(),e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+            } catch (Exception e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.SYSTEM_ERROR, null, e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
     }
 
 }
@@ -9,14 +9,18 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.common.enums.OrderStatus;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.Order;
+import com.haui.coffee_shop.payload.request.CheckoutRequest;
 import com.haui.coffee_shop.payload.request.OrderRequest;
+import com.haui.coffee_shop.payload.request.OrderSearchRequest;
+import com.haui.coffee_shop.payload.request.OrderStatusBulkRequest;
 import com.haui.coffee_shop.payload.response.RespMessage;
 import com.haui.coffee_shop.repository.OrderRepository;
+import com.haui.coffee_shop.service.IdempotencyService;
+import com.haui.coffee_shop.service.OrderPipelineService;
 import com.haui.coffee_shop.service.OrderService;
 
 import java.util.List;
@@ -29,90 +33,190 @@ public class OrderController {
     private final OrderService orderService;
     @Autowired
     private final MessageBuilder messageBuilder;
+    @Autowired
+    private final IdempotencyService idempotencyService;
+    @Autowired
+    private final OrderPipelineService orderPipelineService;
 
 
     @GetMapping("/get-all")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> getAllOrders() {
+    public ResponseEntity<RespMessage> getAllOrders() {
         RespMessage respMessage = orderService.getAllOrders();
-        return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<String> getOrderById(@PathVariable long orderId) {
+    public ResponseEntity<RespMessage> getOrderById(@PathVariable long orderId) {
         try {
             RespMessage respMessage = orderService.getOrderById(orderId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (RuntimeException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
 
     @PostMapping("")
-    public ResponseEntity<String> addOrder(@RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<RespMessage> addOrder(@RequestBody OrderRequest orderRequest,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                @RequestHeader(value = "Prefer", required = false) String prefer) {
+        return idempotencyService.execute(idempotencyKey, "order", orderRequest, () -> {
+            try {
+                // Prefer: respond-async -> 202 + mã tham chiếu, kết quả đẩy qua /topic/order-pipeline/{userId} và GET /async/{reference}.
+                // Chỉ bật khi client yêu cầu: Frontend hiện tại lấy orderId từ data của phản hồi 200 để ghi giao dịch VNPay
+                if (prefer != null && prefer.contains("respond-async")) {
+                    RespMessage respMessage = messageBuilder.buildSuccessMessage(orderPipelineService.submit(orderRequest));
+                    return new ResponseEntity<>(respMessage, HttpStatus.ACCEPTED);
+                }
+                RespMessage respMessage = orderService.addOrder(orderRequest);
+                return new ResponseEntity<>(respMessage, HttpStatus.OK);
+            } catch (CoffeeShopException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+            } catch (RuntimeException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    // Đặt đơn từ giỏ hàng hiện tại, một request thay cho đọc giỏ + tạo đơn + xóa từng dòng giỏ
+    @PostMapping("/checkout")
+    public ResponseEntity<RespMessage> checkout(@RequestBody CheckoutRequest checkoutRequest,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "checkout", checkoutRequest, () -> {
+            try {
+                RespMessage respMessage = orderService.checkout(checkoutRequest);
+                return new ResponseEntity<>(respMessage, HttpStatus.OK);
+            } catch (CoffeeShopException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+            } catch (RuntimeException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    @GetMapping("/async/{reference}")
+    public ResponseEntity<RespMessage> getAsyncOrderResult(@PathVariable String reference) {
         try {
-            RespMessage respMessage = orderService.addOrder(orderRequest);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            RespMessage respMessage = messageBuilder.buildSuccessMessage(orderPipelineService.getResult(reference));
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PutMapping("/{orderId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
+    public ResponseEntity<RespMessage> updateOrderStatus(@PathVariable long orderId,
+                                                         @RequestParam(required = false) OrderStatus expectedStatus) {
+        try {
+            RespMessage respMessage = orderService.updateOrderStatus(orderId, expectedStatus);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e){
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    @PutMapping("/{orderId}")
+    @PutMapping("/bulk-status")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> updateOrderStatus(@PathVariable long orderId) {
+    public ResponseEntity<RespMessage> bulkUpdateOrderStatus(@RequestBody OrderStatusBulkRequest request) {
         try {
-            RespMessage respMessage = orderService.updateOrderStatus(orderId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            RespMessage respMessage = orderService.bulkUpdateOrderStatus(request);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e){
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @PutMapping("/cancel-order/{orderId}")
-    public ResponseEntity<String> cancelOrder(@PathVariable long orderId) {
+    public ResponseEntity<RespMessage> cancelOrder(@PathVariable long orderId) {
         try {
             RespMessage respMessage = orderService.cancelOrder(orderId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e){
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/user/all")
-    public ResponseEntity<String> getOrdersByUser() {
+    public ResponseEntity<RespMessage> getOrdersByUser() {
         try {
             RespMessage respMessage = orderService.getOrdersByUser();
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (RuntimeException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
     @GetMapping("/status/{orderStatus}")
-    public ResponseEntity<String> getOrderByStatus(@PathVariable OrderStatus orderStatus) {
+    public ResponseEntity<RespMessage> getOrderByStatus(@PathVariable OrderStatus orderStatus) {
         try {
             RespMessage respMessage = orderService.getOrderByStatus(orderStatus);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.SYSTEM_ERROR, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ?status=&fromDate=yyyy-MM-dd&toDate=yyyy-MM-dd&paymentMethod=&email=&minTotal=&cursor=&size=
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
+    public ResponseEntity<RespMessage> searchOrders(OrderSearchRequest request) {
+        try {
+            RespMessage respMessage = orderService.searchOrders(request);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
+    public ResponseEntity<RespMessage> getAllOrderSummaries() {
+        RespMessage respMessage = orderService.getAllOrderSummaries();
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
+    }
+
+    @GetMapping("/summary/status/{orderStatus}")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
+    public ResponseEntity<RespMessage> getOrderSummariesByStatus(@PathVariable OrderStatus orderStatus) {
+        RespMessage respMessage = orderService.getOrderSummariesByStatus(orderStatus);
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
+    }
+
+    @GetMapping("/summary/user")
+    public ResponseEntity<RespMessage> getOrderSummariesByUser() {
+        try {
+            RespMessage respMessage = orderService.getOrderSummariesByUser();
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.UNAUTHORIZED);
         }
     }
 }
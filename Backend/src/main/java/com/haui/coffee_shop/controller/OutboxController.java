@@ -0,0 +1,28 @@
+package com.haui.coffee_shop.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.OutboxRelay;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/outbox")
+public class OutboxController {
+    private final OutboxRelay outboxRelay;
+    private final MessageBuilder messageBuilder;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<RespMessage> getStats() {
+        RespMessage respMessage = messageBuilder.buildSuccessMessage(outboxRelay.getStats());
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
+    }
+}
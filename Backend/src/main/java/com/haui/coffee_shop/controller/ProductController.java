@@ -12,9 +12,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.config.JacksonResponse;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.payload.request.ProductFilterRequest;
 import com.haui.coffee_shop.payload.request.ProductRequest;
 import com.haui.coffee_shop.payload.response.RespMessage;
 import com.haui.coffee_shop.service.ProductService;
@@ -27,58 +28,59 @@ public class ProductController {
     private final MessageBuilder messageBuilder;
 
     @RequestMapping(value = "/all", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getAllProducts() {
+    public ResponseEntity<RespMessage> getAllProducts() {
         RespMessage respMessage = productService.getAllProduct();
-        return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
     }
 
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> addProduct(@RequestBody ProductRequest request) {
+    public ResponseEntity<RespMessage> addProduct(@RequestBody ProductRequest request) {
         try {
             RespMessage respMessage = productService.addProduct(request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> updateProduct(@PathVariable Long id, @RequestBody ProductRequest request) {
+    public ResponseEntity<RespMessage> updateProduct(@PathVariable Long id, @RequestBody ProductRequest request) {
         try {
             RespMessage respMessage = productService.updateProduct(id, request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> deleteProduct(@PathVariable Long id) {
+    public ResponseEntity<RespMessage> deleteProduct(@PathVariable Long id) {
         try {
             RespMessage respMessage = productService.deleteProduct(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         }
         catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
     }
 
+    @JacksonResponse
     @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = "application/json")
     public ResponseEntity<RespMessage> getProduct(@PathVariable Long id) {
         try {
@@ -93,6 +95,7 @@ public class ProductController {
         }
     }
     // API tìm kiếm sản phẩm theo từ khóa và trả về RespMessage thông qua ResponseEntity
+    @JacksonResponse
     @GetMapping("/search")
     public ResponseEntity<RespMessage> searchProductsByKeyword(@RequestParam("q") String keyword) {
         try {
@@ -110,6 +113,7 @@ public class ProductController {
             return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+    @JacksonResponse
     @RequestMapping(value = "category/{categoryId}", method = RequestMethod.GET, produces = "application/json")
     public ResponseEntity<RespMessage> getProductsByCategoryId(@PathVariable Long categoryId) {
         try {
@@ -124,6 +128,7 @@ public class ProductController {
         }
     }
     
+    @JacksonResponse
     @RequestMapping(value = "brand/{brandId}", method = RequestMethod.GET, produces = "application/json")
     public ResponseEntity<RespMessage> getProductsByBrandId(@PathVariable Long brandId) {
         try {
@@ -138,6 +143,7 @@ public class ProductController {
         }
     }
     
+    @JacksonResponse
     @RequestMapping(value = "/best", method = RequestMethod.GET, produces = "application/json")
     public ResponseEntity<RespMessage> getProductsByIds(@RequestParam(required = false) Long categoryId,
                                                         @RequestParam(required = false) Long brandId) {
@@ -156,34 +162,114 @@ public class ProductController {
 
     @RequestMapping(value = "/{id}/image", method = RequestMethod.POST, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> uploadImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+    public ResponseEntity<RespMessage> uploadImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
         try {
             RespMessage respMessage = productService.uploadImage(id, file);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/image/{id}", method = RequestMethod.DELETE, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<String> deleteImage(@PathVariable Long id) {
+    public ResponseEntity<RespMessage> deleteImage(@PathVariable Long id) {
         try {
             RespMessage respMessage = productService.deleteImage(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Các API phân trang keyset: sort = newest | price | best-selling | rating, cursor lấy từ nextCursor của trang trước
+    @RequestMapping(value = "/page", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> getProductPage(@RequestParam(required = false) String sort,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) Long categoryId,
+                                                      @RequestParam(required = false) Long brandId,
+                                                      @RequestParam(value = "q", required = false) String keyword) {
+        return buildProductPage(sort, cursor, size, categoryId, brandId, keyword);
+    }
+
+    @RequestMapping(value = "category/{categoryId}/page", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> getProductPageByCategoryId(@PathVariable Long categoryId,
+                                                                  @RequestParam(required = false) String sort,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return buildProductPage(sort, cursor, size, categoryId, null, null);
+    }
 
+    @RequestMapping(value = "brand/{brandId}/page", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> getProductPageByBrandId(@PathVariable Long brandId,
+                                                               @RequestParam(required = false) String sort,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        return buildProductPage(sort, cursor, size, null, brandId, null);
+    }
+
+    @GetMapping("/search/page")
+    public ResponseEntity<RespMessage> searchProductPage(@RequestParam("q") String keyword,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        return buildProductPage(sort, cursor, size, null, null, keyword);
+    }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<RespMessage> suggest(@RequestParam("q") String keyword,
+                                               @RequestParam(required = false) Integer limit) {
+        try {
+            RespMessage respMessage = productService.suggest(keyword, limit);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Lọc theo facet: ?categoryId=1&brandId=2&brandId=3&origin=...&price=100000-200000&minPrice=&maxPrice=&page=&size=
+    @RequestMapping(value = "/filter", method = RequestMethod.GET, produces = "application/json")
+    public ResponseEntity<RespMessage> filterProducts(ProductFilterRequest request) {
+        try {
+            RespMessage respMessage = productService.filterProducts(request);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private ResponseEntity<RespMessage> buildProductPage(String sort, String cursor, Integer size,
+                                                         Long categoryId, Long brandId, String keyword) {
+        try {
+            RespMessage respMessage = productService.getProductPage(sort, cursor, size, categoryId, brandId, keyword);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @RequestMapping(value = "/cache-stats", method = RequestMethod.GET, produces = "application/json")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<RespMessage> getCacheStats() {
+        RespMessage respMessage = productService.getCacheStats();
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
+    }
 }
@@ -9,13 +9,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.config.JacksonResponse;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.request.ProductItemRequest;
 import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.FlashSaleQueue;
 import com.haui.coffee_shop.service.ProductItemService;
 
 import java.util.List;
@@ -26,55 +28,79 @@ import java.util.List;
 public class ProductItemController {
     public final ProductItemService productItemService;
     public final MessageBuilder messageBuilder;
+    public final FlashSaleQueue flashSaleQueue;
 
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> addProductItem(@RequestBody ProductItemRequest request) {
+    public ResponseEntity<RespMessage> addProductItem(@RequestBody ProductItemRequest request) {
         try {
             RespMessage respMessage = productItemService.addProductItem(request);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> updateProductItem(@PathVariable long id, @RequestBody ProductItemRequest request) {
+    public ResponseEntity<RespMessage> updateProductItem(@PathVariable long id, @RequestBody ProductItemRequest request) {
         try {
             RespMessage respMessage = productItemService.updateProductItem(request, id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> deleteProductItem(@PathVariable long id) {
+    public ResponseEntity<RespMessage> deleteProductItem(@PathVariable long id) {
         try {
             RespMessage respMessage = productItemService.deleteProductItem(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @JacksonResponse
     @RequestMapping(value = "/{productId}", method = RequestMethod.GET, produces = "application/json")
     public ResponseEntity<RespMessage> getProductItems(@PathVariable long productId) {
         RespMessage respMessage = productItemService.getProductItem(productId);
         return new ResponseEntity<>(respMessage, HttpStatus.OK);
     }
+
+    @RequestMapping(value = "/{id}/flash-sale", method = RequestMethod.PUT, produces = "application/json")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<RespMessage> updateFlashSale(@PathVariable long id, @RequestParam("enabled") boolean enabled) {
+        try {
+            RespMessage respMessage = productItemService.updateFlashSale(id, enabled);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @RequestMapping(value = "/flash-sale/stats", method = RequestMethod.GET, produces = "application/json")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<RespMessage> getFlashSaleStats() {
+        RespMessage respMessage = messageBuilder.buildSuccessMessage(flashSaleQueue.getStats());
+        return new ResponseEntity<>(respMessage, HttpStatus.OK);
+    }
 }
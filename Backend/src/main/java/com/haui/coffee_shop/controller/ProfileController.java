@@ -8,7 +8,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.request.UserRequest;
@@ -24,44 +23,44 @@ public class ProfileController {
     private final MessageBuilder messageBuilder;
 
     @RequestMapping(value = "", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getProfile() {
+    public ResponseEntity<RespMessage> getProfile() {
         try {
             RespMessage resp = profileService.getProfile();
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "", method = RequestMethod.PUT, produces = "application/json")
-    public ResponseEntity<String> updateProfile(@RequestBody UserRequest userRequest) {
+    public ResponseEntity<RespMessage> updateProfile(@RequestBody UserRequest userRequest) {
         try {
             RespMessage resp = profileService.updateProfile(userRequest);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @RequestMapping(value = "/avatar", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> updateAvatar(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<RespMessage> updateAvatar(@RequestParam("file") MultipartFile file) {
         try {
             RespMessage resp = profileService.updateAvatar(file);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.OK);
+            return new ResponseEntity<>(resp, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage resp = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(resp, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage resp = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(resp), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(resp, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
@@ -10,7 +10,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.response.RespMessage;
@@ -24,67 +23,67 @@ public class RestChatController {
     private final MessageBuilder messageBuilder;
     @RequestMapping(value = "/conversation/all", method = RequestMethod.GET, produces = "application/json")
 
-    public ResponseEntity<String> getAllConversation() {
+    public ResponseEntity<RespMessage> getAllConversation() {
         try {
             RespMessage respMessage = chatService.getAllConversation();
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
 
     @RequestMapping(value = "/conversation/{id}", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getConversationById
+    public ResponseEntity<RespMessage> getConversationById
             (
                     @PathVariable("id") long id
             ) {
         try {
             RespMessage respMessage = chatService.getConversationById(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
 
     @RequestMapping(value = "/conversation/user/{id}", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getConversationByUser
+    public ResponseEntity<RespMessage> getConversationByUser
             (
                     @PathVariable("id") long id
             ) {
         try {
             RespMessage respMessage = chatService.getConversationByHostId(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
 
     @RequestMapping(value = "/conversation/user/{id}", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> createConversation
+    public ResponseEntity<RespMessage> createConversation
             (
                     @PathVariable("id") long id
             ) {
         try {
             RespMessage respMessage = chatService.createConversation(id);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.NOT_FOUND, null, e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(respMessage, HttpStatus.NOT_FOUND);
         }
     }
 
@@ -9,7 +9,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import com.haui.coffee_shop.common.Constant;
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.payload.request.ReviewRequet;
@@ -25,37 +24,37 @@ public class ReviewController {
     private final MessageBuilder messageBuilder;
 
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> addReview(@RequestBody ReviewRequet reviewRequet) {
+    public ResponseEntity<RespMessage> addReview(@RequestBody ReviewRequet reviewRequet) {
         try {
             RespMessage respMessage = reviewService.addReview(reviewRequet);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
 
     @RequestMapping(value = "/{reviewId}", method = RequestMethod.DELETE, produces = "application/json")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_STAFF')")
-    public ResponseEntity<String> deleteReview(@PathVariable("reviewId") long reviewId) {
+    public ResponseEntity<RespMessage> deleteReview(@PathVariable("reviewId") long reviewId) {
         try {
             RespMessage respMessage = reviewService.deleteReview(reviewId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e){
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
     }
 
     @RequestMapping(value = "/product/{productId}", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getReviewsByProductId(@PathVariable("productId") long productId) {
+    public ResponseEntity<RespMessage> getReviewsByProductId(@PathVariable("productId") long productId) {
         try {
             RespMessage respMessage = reviewService.getReviewByProductId(productId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e){
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(),e.getObjects(),e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
     }
 }
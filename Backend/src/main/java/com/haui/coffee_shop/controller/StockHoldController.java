@@ -0,0 +1,65 @@
+package com.haui.coffee_shop.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.payload.request.StockHoldRequest;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.StockReservationService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stock-hold")
+public class StockHoldController {
+    private final StockReservationService stockReservationService;
+    private final MessageBuilder messageBuilder;
+
+    @PostMapping("")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<RespMessage> reserve(@RequestBody StockHoldRequest request) {
+        try {
+            RespMessage respMessage = stockReservationService.reserve(request);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteMapping("/{reservationId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<RespMessage> release(@PathVariable String reservationId) {
+        try {
+            RespMessage respMessage = stockReservationService.releaseByUser(reservationId);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (CoffeeShopException e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<RespMessage> getAvailability(@RequestParam("productItemId") List<Long> productItemIds) {
+        try {
+            RespMessage respMessage = stockReservationService.getAvailability(productItemIds);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.UNDEFINED, null, e.getMessage());
+            return new ResponseEntity<>(respMessage, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
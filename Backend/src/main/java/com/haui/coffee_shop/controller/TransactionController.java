@@ -8,14 +8,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import com.haui.coffee_shop.common.GsonUtil;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.Transaction;
 import com.haui.coffee_shop.payload.request.TransactionRequest;
 import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.service.IdempotencyService;
 import com.haui.coffee_shop.service.TransactionService;
 
 @Controller
@@ -24,26 +25,30 @@ import com.haui.coffee_shop.service.TransactionService;
 public class TransactionController {
     private final TransactionService transactionService;
     private final MessageBuilder messageBuilder;
+    private final IdempotencyService idempotencyService;
 
     @RequestMapping(value = "", method = RequestMethod.POST, produces = "application/json")
-    public ResponseEntity<String> addTransaction(@RequestBody TransactionRequest transactionRequest) {
-        try {
-            RespMessage respMessage = transactionService.addTransaction(transactionRequest);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
-        } catch (CoffeeShopException e) {
-            RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
-        }
+    public ResponseEntity<RespMessage> addTransaction(@RequestBody TransactionRequest transactionRequest,
+                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "transaction", transactionRequest, () -> {
+            try {
+                RespMessage respMessage = transactionService.addTransaction(transactionRequest);
+                return new ResponseEntity<>(respMessage, HttpStatus.OK);
+            } catch (CoffeeShopException e) {
+                RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
+                return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+            }
+        });
     }
 
     @RequestMapping(value = "", method = RequestMethod.GET, produces = "application/json")
-    public ResponseEntity<String> getTransactions(@RequestParam long orderId) {
+    public ResponseEntity<RespMessage> getTransactions(@RequestParam long orderId) {
         try {
             RespMessage respMessage = transactionService.getTransaction(orderId);
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.OK);
+            return new ResponseEntity<>(respMessage, HttpStatus.OK);
         } catch (CoffeeShopException e) {
             RespMessage respMessage = messageBuilder.buildFailureMessage(e.getCode(), e.getObjects(), e.getMessage());
-            return new ResponseEntity<>(GsonUtil.getInstance().toJson(respMessage), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
         }
     }
 }
@@ -0,0 +1,36 @@
+package com.haui.coffee_shop.event;
+
+import lombok.Getter;
+
+import com.haui.coffee_shop.model.Brand;
+import com.haui.coffee_shop.model.Category;
+import com.haui.coffee_shop.model.Product;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Published after a product, its images or its product items were written.
+ * Carries the old and new category / brand so listeners can drop exactly the affected listings.
+ */
+@Getter
+public class ProductChangedEvent {
+    private final long productId;
+    private final Set<Long> categoryIds = new HashSet<>();
+    private final Set<Long> brandIds = new HashSet<>();
+
+    public ProductChangedEvent(Product product) {
+        this.productId = product.getId();
+        addOwner(product.getCategory(), product.getBrand());
+    }
+
+    public ProductChangedEvent addOwner(Category category, Brand brand) {
+        if (category != null) {
+            categoryIds.add(category.getId());
+        }
+        if (brand != null) {
+            brandIds.add(brand.getId());
+        }
+        return this;
+    }
+}
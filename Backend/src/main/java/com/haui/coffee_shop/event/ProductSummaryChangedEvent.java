@@ -0,0 +1,21 @@
+package com.haui.coffee_shop.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Published after the product_summary rows (rating, total sold, price range) of some products changed,
+ * e.g. by an order, a review or a stock change. Unlike {@link ProductChangedEvent} the product itself,
+ * its category and its brand are unchanged.
+ */
+@Getter
+public class ProductSummaryChangedEvent {
+    private final Set<Long> productIds;
+
+    public ProductSummaryChangedEvent(Collection<Long> productIds) {
+        this.productIds = new HashSet<>(productIds);
+    }
+}
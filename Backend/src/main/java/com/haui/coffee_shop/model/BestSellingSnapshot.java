@@ -0,0 +1,26 @@
+package com.haui.coffee_shop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Bản lưu của bảng xếp hạng bán chạy để nạp lại khi khởi động, product_ids là danh sách id cách nhau bởi dấu phẩy
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "best_selling_snapshot")
+public class BestSellingSnapshot {
+    @Id
+    @Column(name = "ranking_key", length = 64)
+    private String rankingKey;
+
+    @Column(name = "product_ids", columnDefinition = "TEXT")
+    private String productIds;
+
+    @Column(name = "computed_at")
+    private Date computedAt;
+}
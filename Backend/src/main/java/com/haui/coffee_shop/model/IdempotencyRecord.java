@@ -0,0 +1,40 @@
+package com.haui.coffee_shop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Phản hồi đã trả cho một Idempotency-Key, để request gửi lại nhận đúng kết quả cũ kể cả sau khi khởi động lại
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "record_key", length = 191)
+    private String recordKey;
+
+    @Column(name = "status_code")
+    private int statusCode;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    // SHA-256 của request đầu tiên dùng key này
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+
+    @Column(name = "expires_at")
+    private Date expiresAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -19,8 +20,10 @@ import com.haui.coffee_shop.common.enums.PaymentMethod;
 @Table(name = "`order`")
 
 public class Order {
+    // Cấp id theo khối 50 (pooled) để Hibernate gom được các câu INSERT thành batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private long id;
 
     @ManyToOne
@@ -37,4 +40,10 @@ public class Order {
     @Column(name = "payment_method")
     @Enumerated(EnumType.STRING)
     private PaymentMethod paymentMethod;
+
+    // Khóa lạc quan: hai người cùng chuyển trạng thái thì người lưu sau bị từ chối
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
 }
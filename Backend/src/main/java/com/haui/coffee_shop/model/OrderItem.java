@@ -18,8 +18,10 @@ import lombok.NoArgsConstructor;
 @Table(name = "order_item")
 
 public class OrderItem {
+    // Cấp id theo khối 50 (pooled) để Hibernate gom được các câu INSERT thành batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "amount", nullable = false)
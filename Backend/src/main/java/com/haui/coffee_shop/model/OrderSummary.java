@@ -0,0 +1,69 @@
+package com.haui.coffee_shop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.common.enums.PaymentMethod;
+
+// Bản ghi đọc của đơn hàng cho các màn danh sách, ghi khi tạo đơn và khi đổi trạng thái
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_user_date", columnList = "user_id, order_date"),
+        @Index(name = "idx_order_summary_status_date_id", columnList = "status, order_date, order_id"),
+        @Index(name = "idx_order_summary_payment_date_id", columnList = "payment_method, order_date, order_id"),
+        @Index(name = "idx_order_summary_email_date_id", columnList = "user_email, order_date, order_id"),
+        @Index(name = "idx_order_summary_date_id", columnList = "order_date, order_id")
+})
+public class OrderSummary {
+    @Id
+    @Column(name = "order_id")
+    private long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "receiver_name")
+    private String receiverName;
+
+    @Column(name = "receiver_phone")
+    private String receiverPhone;
+
+    @Column(name = "location")
+    private String location;
+
+    @Column(name = "total")
+    private double total;
+
+    @Column(name = "item_count")
+    private int itemCount;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "payment_method")
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "order_date")
+    private Date orderDate;
+
+    @Column(name = "first_item_image")
+    private String firstItemImage;
+
+    @Column(name = "item_preview", length = 500)
+    private String itemPreview;
+}
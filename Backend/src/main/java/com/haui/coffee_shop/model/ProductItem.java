@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
@@ -40,6 +41,11 @@ public class ProductItem {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    // Bật khi khuyến mãi: đơn của item này trừ kho qua hàng đợi flash sale
+    @ColumnDefault("false")
+    @Column(name = "flash_sale", nullable = false)
+    private boolean flashSale;
+
     @PrePersist
     public void prePersist() {
         if (status == null) status = Status.ACTIVE;
@@ -0,0 +1,49 @@
+package com.haui.coffee_shop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "product_summary", indexes = {
+        @Index(name = "idx_product_summary_min_price", columnList = "min_price, product_id"),
+        @Index(name = "idx_product_summary_total_sold", columnList = "total_sold, product_id"),
+        @Index(name = "idx_product_summary_rating", columnList = "rating, product_id")
+})
+public class ProductSummary {
+    @Id
+    @Column(name = "product_id")
+    private long productId;
+
+    @Column(name = "rating")
+    private double rating;
+
+    @Column(name = "rating_total")
+    private double ratingTotal;
+
+    @Column(name = "total_review")
+    private int totalReview;
+
+    @Column(name = "total_sold")
+    private int totalSold;
+
+    @Column(name = "min_price")
+    private double minPrice;
+
+    @Column(name = "max_price")
+    private double maxPrice;
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    public ProductSummary(long productId) {
+        this.productId = productId;
+        this.updatedAt = new Date();
+    }
+}
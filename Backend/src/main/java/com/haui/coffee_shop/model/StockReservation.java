@@ -0,0 +1,50 @@
+package com.haui.coffee_shop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+import com.haui.coffee_shop.common.enums.ReservationStatus;
+
+// Một dòng giữ hàng; các dòng cùng một lần checkout dùng chung token
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_token", columnList = "token"),
+        @Index(name = "idx_stock_reservation_status_expires", columnList = "status, expires_at")
+})
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "token", length = 36, nullable = false)
+    private String token;
+
+    @ManyToOne()
+    @JoinColumn(name = "product_item_id")
+    private ProductItem productItem;
+
+    @Column(name = "amount")
+    private int amount;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at")
+    private Date expiresAt;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+}
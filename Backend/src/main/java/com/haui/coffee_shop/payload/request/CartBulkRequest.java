@@ -0,0 +1,21 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartBulkRequest {
+    @JsonProperty("UserId")
+    private long userId;
+
+    // Áp dụng theo đúng thứ tự gửi lên
+    @JsonProperty("Operations")
+    private List<CartOperationRequest> operations;
+}
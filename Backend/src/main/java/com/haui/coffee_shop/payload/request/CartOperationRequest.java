@@ -0,0 +1,23 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.haui.coffee_shop.common.enums.CartOperationType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartOperationRequest {
+    @JsonProperty("Type")
+    private CartOperationType type;
+
+    @JsonProperty("ProductItemId")
+    private long productItemId;
+
+    // Bỏ qua với REMOVE
+    @JsonProperty("Quantity")
+    private int quantity;
+}
@@ -0,0 +1,24 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.haui.coffee_shop.common.enums.PaymentMethod;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Đặt đơn từ giỏ hàng: danh sách sản phẩm và giá lấy ở server
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequest {
+    @JsonProperty("ShippingAddressId")
+    private long shippingAddressId;
+
+    @JsonProperty("PaymentMethod")
+    private PaymentMethod paymentMethod;
+
+    // Token giữ hàng từ /api/stock-hold, có thể bỏ trống
+    @JsonProperty("ReservationId")
+    private String reservationId;
+}
@@ -0,0 +1,18 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GuestCartMergeRequest {
+    @JsonProperty("UserId")
+    private long userId;
+
+    @JsonProperty("CartToken")
+    private String cartToken;
+}
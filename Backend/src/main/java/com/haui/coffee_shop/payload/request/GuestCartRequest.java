@@ -0,0 +1,21 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GuestCartRequest {
+    // Bỏ trống khi khách chưa có giỏ
+    @JsonProperty("CartToken")
+    private String cartToken;
+
+    @JsonProperty("Operations")
+    private List<CartOperationRequest> operations;
+}
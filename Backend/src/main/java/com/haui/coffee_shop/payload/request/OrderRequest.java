@@ -22,4 +22,8 @@ public class OrderRequest {
 
     @JsonProperty("PaymentMethod")
     private PaymentMethod paymentMethod;
+
+    // Token giữ hàng từ /api/stock-hold, có thể bỏ trống
+    @JsonProperty("ReservationId")
+    private String reservationId;
 }
@@ -0,0 +1,28 @@
+package com.haui.coffee_shop.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.common.enums.PaymentMethod;
+
+// Nhận từ query string: ?status=Processing&fromDate=2024-01-01&toDate=2024-12-31&paymentMethod=VNPay&email=&minTotal=&cursor=&size=
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class OrderSearchRequest {
+    private OrderStatus status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+    private PaymentMethod paymentMethod;
+    private String email;
+    private Double minTotal;
+    private String cursor;
+    private Integer size;
+}
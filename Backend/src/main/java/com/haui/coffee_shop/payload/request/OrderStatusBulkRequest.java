@@ -0,0 +1,22 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.haui.coffee_shop.common.enums.OrderStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusBulkRequest {
+    @JsonProperty("OrderIds")
+    private List<Long> orderIds;
+
+    // Bỏ trống: mỗi đơn lên trạng thái kế tiếp của nó
+    @JsonProperty("TargetStatus")
+    private OrderStatus targetStatus;
+}
@@ -0,0 +1,25 @@
+package com.haui.coffee_shop.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Nhận từ query string, mỗi facet có thể lặp lại nhiều giá trị (vd: ?brandId=1&brandId=2)
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ProductFilterRequest {
+    private List<String> categoryId;
+    private List<String> brandId;
+    private List<String> origin;
+    private List<String> beanType;
+    private List<String> roadLevel;
+    private List<String> cafeForm;
+    private List<String> price;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer page;
+    private Integer size;
+}
@@ -0,0 +1,18 @@
+package com.haui.coffee_shop.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockHoldRequest {
+    // Chỉ dùng ProductItemId và Amount
+    @JsonProperty("Items")
+    private List<OrderItemRequest> items;
+}
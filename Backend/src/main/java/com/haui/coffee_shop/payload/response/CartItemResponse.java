@@ -1,8 +1,6 @@
 package com.haui.coffee_shop.payload.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.haui.coffee_shop.model.ProductItem;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,5 +17,10 @@ public class CartItemResponse {
     private int quantity;
     @JsonProperty("user_id")
     private Long userId;
+    // Giá sau giảm của một sản phẩm và thành tiền của dòng, tính ở server
+    @JsonProperty("unit_price")
+    private double unitPrice;
+    @JsonProperty("subtotal")
+    private double subtotal;
 
 }
@@ -0,0 +1,29 @@
+package com.haui.coffee_shop.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    @JsonProperty("items")
+    private List<CartItemResponse> items;
+    @JsonProperty("item_count")
+    private int itemCount;
+    @JsonProperty("total_quantity")
+    private int totalQuantity;
+    @JsonProperty("subtotal")
+    private double subtotal;
+    @JsonProperty("shipping_fee")
+    private double shippingFee;
+    @JsonProperty("total")
+    private double total;
+}
@@ -0,0 +1,23 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStatsResponse {
+    private int partitions;
+    private int queueDepth;
+    private List<Integer> queueDepthByPartition;
+    private long admitted;
+    private long rejected;
+    private long batches;
+    private double avgAdmissionMillis;
+    private long maxAdmissionMillis;
+}
@@ -0,0 +1,20 @@
+package com.haui.coffee_shop.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponse {
+    // Client lưu lại token mới sau mỗi lần thay đổi giỏ
+    @JsonProperty("cart_token")
+    private String cartToken;
+    @JsonProperty("cart")
+    private CartResponse cart;
+}
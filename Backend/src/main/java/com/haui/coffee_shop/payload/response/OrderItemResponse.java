@@ -1,5 +1,6 @@
 package com.haui.coffee_shop.payload.response;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +22,10 @@ public class OrderItemResponse {
     private double price;
     private double discount;
     private boolean isReviewed;
+
+    // Lombok sinh getter isReviewed() nên Jackson sẽ đặt tên "reviewed"; giữ đúng tên "isReviewed" như Gson và frontend
+    @JsonProperty("isReviewed")
+    public boolean isReviewed() {
+        return isReviewed;
+    }
 }
@@ -0,0 +1,28 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSummaryResponse {
+    private long orderId;
+    private Long userId;
+    private String userEmail;
+    private String receiverName;
+    private String receiverPhone;
+    private String location;
+    private double total;
+    private int itemCount;
+    private String orderStatus;
+    private String paymentMethod;
+    private Date orderDate;
+    private String firstItemImage;
+    private String itemPreview;
+}
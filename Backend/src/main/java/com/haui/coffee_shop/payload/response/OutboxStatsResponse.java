@@ -0,0 +1,20 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsResponse {
+    private long pending;
+    private long lagMillis;
+    private long processed;
+    private long failed;
+    private int lastBatchSize;
+    private long lastBatchMillis;
+    private int subscribers;
+}
@@ -0,0 +1,42 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.model.Brand;
+import com.haui.coffee_shop.model.Category;
+import com.haui.coffee_shop.model.Product;
+
+import java.util.Date;
+
+/**
+ * Read projection of {@link Product} for list views: every column except the large description and
+ * article text, which are only needed on the product detail page.
+ * The constructor order is used by the JPQL constructor expressions in ProductRepository.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductListView {
+    private final long id;
+    private final String name;
+    private final Category category;
+    private final Brand brand;
+    private final Status status;
+    private final String netWeight;
+    private final String beanType;
+    private final String origin;
+    private final String roadLevel;
+    private final String flavoNotes;
+    private final String caffeineContents;
+    private final String cafeForm;
+    private final String articleTitle;
+    private final Date createdAt;
+
+    public ProductListView(Product product) {
+        this(product.getId(), product.getName(), product.getCategory(), product.getBrand(), product.getStatus(),
+                product.getNetWeight(), product.getBeanType(), product.getOrigin(), product.getRoadLevel(),
+                product.getFlavoNotes(), product.getCaffeineContents(), product.getCafeForm(),
+                product.getArticleTitle(), product.getCreatedAt());
+    }
+}
@@ -0,0 +1,18 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityResponse {
+    private long productItemId;
+    // Có thể bán ngay (cột stock, đã trừ phần đang giữ)
+    private int available;
+    private int held;
+    private int onHand;
+}
@@ -0,0 +1,20 @@
+package com.haui.coffee_shop.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldResponse {
+    private String reservationId;
+    private Date expiresAt;
+    // productItemId -> số lượng đang giữ
+    private Map<Long, Integer> items;
+}
@@ -0,0 +1,10 @@
+package com.haui.coffee_shop.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.haui.coffee_shop.model.BestSellingSnapshot;
+
+@Repository
+public interface BestSellingSnapshotRepository extends JpaRepository<BestSellingSnapshot, String> {
+}
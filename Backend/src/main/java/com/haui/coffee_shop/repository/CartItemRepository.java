@@ -1,10 +1,15 @@
 package com.haui.coffee_shop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.haui.coffee_shop.model.CartItem;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,21 @@ import java.util.Optional;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUserId(Long userId);
     Optional<CartItem> findByUserIdAndProductItemId(Long userId, Long productItemId);
+
+    // Chỉ lấy (id, productItemId, quantity) để nạp giỏ vào bộ nhớ, không join user / product item
+    @Query("SELECT c.id, c.productItem.id, c.quantity FROM CartItem c WHERE c.user.id = :userId")
+    List<Object[]> findLinesByUserId(@Param("userId") long userId);
+
+    @Query("SELECT c.user.id FROM CartItem c WHERE c.id = :id")
+    Optional<Long> findUserIdById(@Param("id") long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CartItem c SET c.quantity = :quantity WHERE c.id = :id")
+    int updateQuantity(@Param("id") long id, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
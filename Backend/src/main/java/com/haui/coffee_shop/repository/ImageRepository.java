@@ -7,10 +7,14 @@ import org.springframework.data.repository.query.Param;
 import com.haui.coffee_shop.model.Image;
 import com.haui.coffee_shop.model.Product;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByProduct(Product product);
     void deleteByProduct(Product product);
-    
+
+    // Chỉ lấy (id, productId, url): Image.product là EAGER nên nạp cả entity sẽ kéo theo toàn bộ Product
+    @Query("SELECT i.id, i.product.id, i.url FROM Image i WHERE i.product.id IN :productIds ORDER BY i.id ASC")
+    List<Object[]> findUrlsByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
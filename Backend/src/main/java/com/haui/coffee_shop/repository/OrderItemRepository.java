@@ -9,6 +9,7 @@ import com.haui.coffee_shop.model.OrderItem;
 
 import javax.swing.text.html.Option;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +19,11 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderId(@Param("orderId") long orderId);
 
+    // Nạp dòng hàng của nhiều đơn cùng lúc cho các màn danh sách
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.productItem pi JOIN FETCH pi.product JOIN FETCH pi.type " +
+            "WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
     @Query("SELECT oi.productItem.product, " +
     	       "SUM(oi.amount) AS totalQuantity, " +
     	       "SUM(oi.amount * (oi.price - oi.discount)) AS totalRevenue " +
@@ -90,7 +96,26 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT SUM(oi.amount) FROM OrderItem oi WHERE oi.productItem.product.id = :productId")
     Optional<Integer> findTotalSold(long productId);
+
+    @Query("SELECT oi.productItem.product.id, SUM(oi.amount) FROM OrderItem oi " +
+            "WHERE oi.productItem.product.id IN :productIds AND oi.order.status <> 'Cancelled' " +
+            "GROUP BY oi.productItem.product.id")
+    List<Object[]> findTotalSoldByProductIds(@Param("productIds") Collection<Long> productIds);
     
+    // Lượt bán theo sản phẩm kèm danh mục / thương hiệu, dùng để dựng mọi bảng xếp hạng trong một truy vấn
+    @Query("SELECT p.id, c.id, b.id, SUM(oi.amount) " +
+            "FROM OrderItem oi " +
+            "JOIN oi.order o " +
+            "JOIN oi.productItem pi " +
+            "JOIN pi.product p " +
+            "LEFT JOIN p.category c " +
+            "LEFT JOIN p.brand b " +
+            "WHERE o.status = 'Completed' " +
+            "AND p.status = 'ACTIVE' " +
+            "AND o.orderDate >= :fromDate " +
+            "GROUP BY p.id, c.id, b.id")
+    List<Object[]> findSoldByProductSince(@Param("fromDate") Date fromDate);
+
     @Query("SELECT oi.productItem.product.id " +
     	       "FROM OrderItem oi " +
     	       "JOIN oi.order o " +
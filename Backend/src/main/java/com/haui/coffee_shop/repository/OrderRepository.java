@@ -1,13 +1,16 @@
 package com.haui.coffee_shop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.haui.coffee_shop.common.enums.OrderStatus;
 import com.haui.coffee_shop.model.Order;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +24,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT od FROM Order od WHERE od.status = :orderStatus")
     List<Order> findByStatus(@Param("orderStatus") OrderStatus orderStatus );
+
+    @Query("SELECT od.id, od.status, od.version FROM Order od WHERE od.id IN :orderIds")
+    List<Object[]> findStatusAndVersionByIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Chuyển trạng thái một đơn nếu nó vẫn ở đúng status và version đã đọc, trả 0 nếu đã bị người khác đổi
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order od SET od.status = :toStatus, od.version = od.version + 1 " +
+            "WHERE od.id = :orderId AND od.status = :fromStatus AND od.version = :version")
+    int transitionStatus(@Param("orderId") long orderId,
+                         @Param("fromStatus") OrderStatus fromStatus,
+                         @Param("version") long version,
+                         @Param("toStatus") OrderStatus toStatus);
 }
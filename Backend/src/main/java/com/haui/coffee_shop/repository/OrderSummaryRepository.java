@@ -0,0 +1,63 @@
+package com.haui.coffee_shop.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.common.enums.PaymentMethod;
+import com.haui.coffee_shop.model.Order;
+import com.haui.coffee_shop.model.OrderSummary;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    @Query("SELECT s FROM OrderSummary s ORDER BY s.orderDate DESC")
+    List<OrderSummary> findAllNewestFirst();
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.userId = :userId ORDER BY s.orderDate DESC")
+    List<OrderSummary> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT s FROM OrderSummary s WHERE s.status = :status ORDER BY s.orderDate DESC")
+    List<OrderSummary> findByStatus(@Param("status") OrderStatus status);
+
+    // Trang kế tiếp theo (order_date, order_id) giảm dần; mỗi bộ lọc đi kèm một index (x, order_date, order_id)
+    @Query("SELECT s FROM OrderSummary s " +
+            "WHERE (:status IS NULL OR s.status = :status) " +
+            "AND (:paymentMethod IS NULL OR s.paymentMethod = :paymentMethod) " +
+            "AND (:email IS NULL OR s.userEmail LIKE CONCAT(:email, '%')) " +
+            "AND (:fromDate IS NULL OR s.orderDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR s.orderDate < :toDate) " +
+            "AND (:minTotal IS NULL OR s.total >= :minTotal) " +
+            "AND (:lastId IS NULL OR s.orderDate < :lastDate OR (s.orderDate = :lastDate AND s.orderId < :lastId)) " +
+            "ORDER BY s.orderDate DESC, s.orderId DESC")
+    List<OrderSummary> search(@Param("status") OrderStatus status,
+                              @Param("paymentMethod") PaymentMethod paymentMethod,
+                              @Param("email") String email,
+                              @Param("fromDate") Date fromDate,
+                              @Param("toDate") Date toDate,
+                              @Param("minTotal") Double minTotal,
+                              @Param("lastDate") Date lastDate,
+                              @Param("lastId") Long lastId,
+                              Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status WHERE s.orderId = :orderId")
+    int updateStatus(@Param("orderId") long orderId, @Param("status") OrderStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.status = :status WHERE s.orderId IN :orderIds")
+    int updateStatusIn(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status);
+
+    // Đơn cũ chưa có bản ghi tóm tắt, đọc từng trang theo id tăng dần
+    @Query("SELECT o FROM Order o WHERE o.id > :lastId " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderSummary s WHERE s.orderId = o.id) ORDER BY o.id ASC")
+    List<Order> findOrdersWithoutSummary(@Param("lastId") long lastId, Pageable pageable);
+}
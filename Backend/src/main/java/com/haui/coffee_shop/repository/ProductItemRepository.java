@@ -1,17 +1,38 @@
 package com.haui.coffee_shop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.haui.coffee_shop.model.ProductItem;
 
+import java.util.Collection;
 import java.util.List;
 
 
 @Repository
-public interface ProductItemRepository extends JpaRepository<ProductItem, Long> {
+public interface ProductItemRepository extends JpaRepository<ProductItem, Long>, ProductItemRepositoryCustom {
 
     boolean existsByProductIdAndTypeId(long productId, long typeId);
 
     List<ProductItem> findByProductId(long productId);
-}
\ No newline at end of file
+
+    // Nạp product item cùng product, category, brand, type trong một câu để dựng giỏ hàng không bị N+1
+    @Query("SELECT pi FROM ProductItem pi JOIN FETCH pi.product p LEFT JOIN FETCH p.category " +
+            "LEFT JOIN FETCH p.brand LEFT JOIN FETCH pi.type WHERE pi.id IN :ids")
+    List<ProductItem> findWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductItem pi SET pi.stock = pi.stock - :amount WHERE pi.id = :id AND pi.stock >= :amount")
+    int decrementStockIfAvailable(@Param("id") long id, @Param("amount") int amount);
+
+    // Chỉ đổi cờ, không ghi đè stock đang bị trừ song song
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductItem pi SET pi.flashSale = :flashSale WHERE pi.id = :id")
+    int updateFlashSale(@Param("id") long id, @Param("flashSale") boolean flashSale);
+}
@@ -0,0 +1,14 @@
+package com.haui.coffee_shop.repository;
+
+import java.util.Map;
+
+public interface ProductItemRepositoryCustom {
+    /**
+     * Trừ kho cho nhiều product item trong một câu UPDATE có điều kiện stock >= số lượng.
+     * Trả về số dòng được cập nhật; nhỏ hơn số phần tử của map nghĩa là có item không đủ hàng.
+     */
+    int decrementStock(Map<Long, Integer> amountByProductItem);
+
+    // Cộng lại kho cho nhiều product item trong một câu UPDATE
+    int incrementStock(Map<Long, Integer> amountByProductItem);
+}
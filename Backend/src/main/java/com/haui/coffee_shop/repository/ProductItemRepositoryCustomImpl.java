@@ -0,0 +1,52 @@
+package com.haui.coffee_shop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductItemRepositoryCustomImpl implements ProductItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int decrementStock(Map<Long, Integer> amountByProductItem) {
+        return updateStock(amountByProductItem, "-", true);
+    }
+
+    @Override
+    @Transactional
+    public int incrementStock(Map<Long, Integer> amountByProductItem) {
+        return updateStock(amountByProductItem, "+", false);
+    }
+
+    // UPDATE product_item SET stock = stock - CASE id WHEN .. THEN .. END WHERE id IN (..) AND stock >= CASE ..
+    private int updateStock(Map<Long, Integer> amountByProductItem, String operator, boolean requireStock) {
+        if (amountByProductItem.isEmpty()) {
+            return 0;
+        }
+        StringBuilder amountCase = new StringBuilder("CASE pi.id");
+        for (int i = 0; i < amountByProductItem.size(); i++) {
+            amountCase.append(" WHEN :id").append(i).append(" THEN :amount").append(i);
+        }
+        amountCase.append(" ELSE 0 END");
+
+        String jpql = "UPDATE ProductItem pi SET pi.stock = pi.stock " + operator + " " + amountCase
+                + " WHERE pi.id IN :ids"
+                + (requireStock ? " AND pi.stock >= " + amountCase : "");
+        Query query = entityManager.createQuery(jpql);
+
+        List<Long> ids = new ArrayList<>(amountByProductItem.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            query.setParameter("id" + i, ids.get(i));
+            query.setParameter("amount" + i, amountByProductItem.get(ids.get(i)));
+        }
+        query.setParameter("ids", ids);
+        return query.executeUpdate();
+    }
+}
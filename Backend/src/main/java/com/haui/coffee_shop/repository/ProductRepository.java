@@ -1,5 +1,6 @@
 package com.haui.coffee_shop.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,18 +9,48 @@ import org.springframework.stereotype.Repository;
 import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.model.Image;
 import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.payload.response.ProductListView;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Projection cho trang danh sách, không lấy description/article (TEXT)
+    String LIST_VIEW = "SELECT new com.haui.coffee_shop.payload.response.ProductListView(" +
+            "p.id, p.name, c, b, p.status, p.netWeight, p.beanType, p.origin, p.roadLevel, " +
+            "p.flavoNotes, p.caffeineContents, p.cafeForm, p.articleTitle, p.createdAt) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b ";
+
+    // Bộ lọc chung cho các truy vấn phân trang keyset, tham số null thì bỏ qua;
+    // từ khóa đã được ProductSearchIndex giải thành :ids, byIds = false thì không lọc theo id
+    String PAGE_FILTER = "p.status = 'ACTIVE' " +
+            "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+            "AND (:brandId IS NULL OR b.id = :brandId) " +
+            "AND (:byIds = false OR p.id IN :ids) ";
+
     Optional<Product> findByName(String name);
 
+    @Query("SELECT p.id FROM Product p")
+    List<Long> findAllIds();
+
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.brand.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchByKeyword(String keyword);
 
     List<Product> findByCategoryId(Long categoryId);
+
+    @Query(LIST_VIEW + "WHERE p.status = 'ACTIVE'")
+    List<ProductListView> findActiveListViews();
+
+    @Query(LIST_VIEW + "WHERE p.status = 'ACTIVE' AND c.id = :categoryId")
+    List<ProductListView> findActiveListViewsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(LIST_VIEW + "WHERE p.status = 'ACTIVE' AND b.id = :brandId")
+    List<ProductListView> findActiveListViewsByBrandId(@Param("brandId") Long brandId);
+
+    @Query(LIST_VIEW + "WHERE p.status = 'ACTIVE' AND p.id IN :ids")
+    List<ProductListView> findActiveListViewsByIds(@Param("ids") Collection<Long> ids);
     
     List<Product> findByBrandId(Long BrandId);
 
@@ -28,6 +59,56 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT MIN(pi.price) FROM ProductItem pi WHERE pi.product.id = :productId AND pi.stock > 0 AND pi.status = 'ACTIVE'")
     Optional<Double> minPrice(long productId);
-    
-   
+
+    @Query("SELECT pi.product.id, MIN(pi.price), MAX(pi.price) FROM ProductItem pi " +
+            "WHERE pi.product.id IN :productIds AND pi.stock > 0 AND pi.status = 'ACTIVE' " +
+            "GROUP BY pi.product.id")
+    List<Object[]> findPriceRangeByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query(LIST_VIEW +
+            "WHERE " + PAGE_FILTER +
+            "AND (:lastId IS NULL OR p.id < :lastId) " +
+            "ORDER BY p.id DESC")
+    List<ProductListView> findPageNewest(@Param("categoryId") Long categoryId,
+                                 @Param("brandId") Long brandId,
+                                 @Param("byIds") boolean byIds,
+                                 @Param("ids") Collection<Long> ids,
+                                 @Param("lastId") Long lastId,
+                                 Pageable pageable);
+
+    @Query(LIST_VIEW + "JOIN ProductSummary s ON s.productId = p.id " +
+            "WHERE " + PAGE_FILTER +
+            "AND (:lastId IS NULL OR s.minPrice > :lastPrice OR (s.minPrice = :lastPrice AND p.id > :lastId)) " +
+            "ORDER BY s.minPrice ASC, p.id ASC")
+    List<ProductListView> findPageByPrice(@Param("categoryId") Long categoryId,
+                                  @Param("brandId") Long brandId,
+                                  @Param("byIds") boolean byIds,
+                                  @Param("ids") Collection<Long> ids,
+                                  @Param("lastPrice") Double lastPrice,
+                                  @Param("lastId") Long lastId,
+                                  Pageable pageable);
+
+    @Query(LIST_VIEW + "JOIN ProductSummary s ON s.productId = p.id " +
+            "WHERE " + PAGE_FILTER +
+            "AND (:lastId IS NULL OR s.totalSold < :lastSold OR (s.totalSold = :lastSold AND p.id < :lastId)) " +
+            "ORDER BY s.totalSold DESC, p.id DESC")
+    List<ProductListView> findPageByTotalSold(@Param("categoryId") Long categoryId,
+                                      @Param("brandId") Long brandId,
+                                      @Param("byIds") boolean byIds,
+                                      @Param("ids") Collection<Long> ids,
+                                      @Param("lastSold") Integer lastSold,
+                                      @Param("lastId") Long lastId,
+                                      Pageable pageable);
+
+    @Query(LIST_VIEW + "JOIN ProductSummary s ON s.productId = p.id " +
+            "WHERE " + PAGE_FILTER +
+            "AND (:lastId IS NULL OR s.rating < :lastRating OR (s.rating = :lastRating AND p.id < :lastId)) " +
+            "ORDER BY s.rating DESC, p.id DESC")
+    List<ProductListView> findPageByRating(@Param("categoryId") Long categoryId,
+                                   @Param("brandId") Long brandId,
+                                   @Param("byIds") boolean byIds,
+                                   @Param("ids") Collection<Long> ids,
+                                   @Param("lastRating") Double lastRating,
+                                   @Param("lastId") Long lastId,
+                                   Pageable pageable);
 }
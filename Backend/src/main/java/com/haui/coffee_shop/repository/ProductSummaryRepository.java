@@ -0,0 +1,74 @@
+package com.haui.coffee_shop.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.haui.coffee_shop.model.ProductSummary;
+
+import java.util.Collection;
+
+@Repository
+public interface ProductSummaryRepository extends JpaRepository<ProductSummary, Long> {
+
+    // rating được gán trước để luôn tính trên giá trị cũ của ratingTotal/totalReview
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductSummary s SET s.rating = (s.ratingTotal + :rating) / (s.totalReview + 1), " +
+            "s.ratingTotal = s.ratingTotal + :rating, " +
+            "s.totalReview = s.totalReview + 1, " +
+            "s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.productId = :productId")
+    int addReview(@Param("productId") long productId, @Param("rating") double rating);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductSummary s SET " +
+            "s.rating = CASE WHEN s.totalReview > 1 THEN (s.ratingTotal - :rating) / (s.totalReview - 1) ELSE 0 END, " +
+            "s.ratingTotal = CASE WHEN s.totalReview > 1 THEN s.ratingTotal - :rating ELSE 0 END, " +
+            "s.totalReview = CASE WHEN s.totalReview > 0 THEN s.totalReview - 1 ELSE 0 END, " +
+            "s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.productId = :productId")
+    int removeReview(@Param("productId") long productId, @Param("rating") double rating);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductSummary s SET s.totalSold = s.totalSold + :amount, s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.productId = :productId")
+    int addTotalSold(@Param("productId") long productId, @Param("amount") int amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductSummary s SET s.minPrice = :minPrice, s.maxPrice = :maxPrice, s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.productId = :productId")
+    int updatePriceRange(@Param("productId") long productId,
+                         @Param("minPrice") double minPrice,
+                         @Param("maxPrice") double maxPrice);
+
+    // Tính lại và ghi cả dòng trong một câu lệnh: câu lệnh giữ khóa dòng summary giống các UPDATE cộng dồn ở trên
+    // nên không ghi đè delta của giao dịch chạy song song như khi đọc ra Java rồi saveAll
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO product_summary " +
+            "(product_id, rating, rating_total, total_review, total_sold, min_price, max_price, updated_at) " +
+            "SELECT p.id, COALESCE(r.avg_rating, 0), COALESCE(r.sum_rating, 0), COALESCE(r.review_count, 0), " +
+            "COALESCE(s.sold, 0), COALESCE(pr.lowest_price, 0), COALESCE(pr.highest_price, 0), CURRENT_TIMESTAMP " +
+            "FROM product p " +
+            "LEFT JOIN (SELECT pi.product_id, AVG(rv.rating) AS avg_rating, SUM(rv.rating) AS sum_rating, COUNT(*) AS review_count " +
+            "FROM review rv JOIN order_item oi ON oi.id = rv.order_item_id JOIN product_item pi ON pi.id = oi.product_item_id " +
+            "WHERE pi.product_id IN (:productIds) AND rv.status = 'ACTIVE' GROUP BY pi.product_id) r ON r.product_id = p.id " +
+            "LEFT JOIN (SELECT pi.product_id, SUM(oi.amount) AS sold " +
+            "FROM order_item oi JOIN `order` o ON o.id = oi.order_id JOIN product_item pi ON pi.id = oi.product_item_id " +
+            "WHERE pi.product_id IN (:productIds) AND o.status <> 'Cancelled' GROUP BY pi.product_id) s ON s.product_id = p.id " +
+            "LEFT JOIN (SELECT product_id, MIN(price) AS lowest_price, MAX(price) AS highest_price FROM product_item " +
+            "WHERE product_id IN (:productIds) AND stock > 0 AND status = 'ACTIVE' GROUP BY product_id) pr ON pr.product_id = p.id " +
+            "WHERE p.id IN (:productIds) " +
+            "ON DUPLICATE KEY UPDATE rating = VALUES(rating), rating_total = VALUES(rating_total), " +
+            "total_review = VALUES(total_review), total_sold = VALUES(total_sold), min_price = VALUES(min_price), " +
+            "max_price = VALUES(max_price), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int rebuild(@Param("productIds") Collection<Long> productIds);
+}
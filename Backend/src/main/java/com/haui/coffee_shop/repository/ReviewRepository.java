@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 
 import com.haui.coffee_shop.model.Review;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
@@ -16,5 +17,10 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT rv FROM Review rv WHERE rv.orderItem.order.id = :orderId")
     List<Review> findByOrderId( Long orderId);
 
+    @Query("SELECT rv.orderItem.productItem.product.id, AVG(rv.rating), COUNT(rv) FROM Review rv " +
+            "WHERE rv.orderItem.productItem.product.id IN :productIds AND rv.status = 'ACTIVE' " +
+            "GROUP BY rv.orderItem.productItem.product.id")
+    List<Object[]> findRatingByProductIds(@Param("productIds") Collection<Long> productIds);
+
 
 }
@@ -0,0 +1,26 @@
+package com.haui.coffee_shop.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.haui.coffee_shop.common.enums.ReservationStatus;
+import com.haui.coffee_shop.model.StockReservation;
+
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByToken(String token);
+
+    List<StockReservation> findByStatus(ReservationStatus status);
+
+    // Chỉ một luồng chuyển được token khỏi ACTIVE, số dòng trả về 0 nghĩa là đã bị xử lý trước
+    @Transactional
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status WHERE r.token = :token AND r.status = 'ACTIVE'")
+    int closeActive(@Param("token") String token, @Param("status") ReservationStatus status);
+}
@@ -25,6 +25,6 @@ public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint
         RespMessage respMessage = request.getAttribute("exception") != null ? (RespMessage) request.getAttribute("exception") : messageBuilder.buildFailureMessage(Constant.UNAUTHORIZED, null, "Authentication error: " + authException);
         response.setContentType("application/json");
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.getWriter().write(GsonUtil.getInstance().toJson(respMessage));
+        GsonUtil.getInstance().toJson(respMessage, response.getWriter());
     }
 }
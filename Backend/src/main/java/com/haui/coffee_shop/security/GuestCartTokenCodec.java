@@ -0,0 +1,101 @@
+package com.haui.coffee_shop.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Giỏ hàng của khách chưa đăng nhập nằm hoàn toàn phía client dưới dạng JWT ký HMAC, claim "c" là chuỗi
+ * gọn "productItemId:quantity,...". Khóa ký được dẫn xuất từ app.jwt-secret với nhãn riêng nên token giỏ
+ * hàng không bao giờ dùng được thay access token và ngược lại.
+ */
+@Component
+public class GuestCartTokenCodec {
+    private static final String CART_CLAIM = "c";
+    private static final String KEY_LABEL = "guest-cart";
+
+    private final Key key;
+    private final long ttlMillis;
+    private final int maxLines;
+
+    public GuestCartTokenCodec(@Value("${app.jwt-secret}") String jwtSecret,
+                               @Value("${guest-cart.ttl-days:30}") long ttlDays,
+                               @Value("${guest-cart.max-lines:50}") int maxLines) {
+        this.key = deriveKey(jwtSecret);
+        this.ttlMillis = ttlDays * 24 * 60 * 60 * 1000;
+        this.maxLines = maxLines;
+    }
+
+    public String encode(Map<Long, Integer> quantities) {
+        if (quantities.size() > maxLines) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Operations"}, "Guest cart cannot have more than " + maxLines + " items");
+        }
+        StringBuilder lines = new StringBuilder();
+        quantities.forEach((productItemId, quantity) -> {
+            if (!lines.isEmpty()) {
+                lines.append(',');
+            }
+            lines.append(productItemId).append(':').append(quantity);
+        });
+        Date now = new Date();
+        return Jwts.builder()
+                .claim(CART_CLAIM, lines.toString())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + ttlMillis))
+                .signWith(key)
+                .compact();
+    }
+
+    // Token rỗng là giỏ rỗng; giữ thứ tự các dòng như lúc mã hóa
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        if (token == null || token.isBlank()) {
+            return quantities;
+        }
+        String lines;
+        try {
+            lines = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody()
+                    .get(CART_CLAIM, String.class);
+        } catch (ExpiredJwtException ex) {
+            throw new CoffeeShopException(Constant.FIELD_EXPIRED, new Object[]{"CartToken"}, "Guest cart token expired");
+        } catch (Exception ex) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"CartToken"}, "Guest cart token is invalid");
+        }
+        if (lines == null || lines.isEmpty()) {
+            return quantities;
+        }
+        for (String line : lines.split(",")) {
+            int separator = line.indexOf(':');
+            quantities.put(Long.parseLong(line.substring(0, separator)), Integer.parseInt(line.substring(separator + 1)));
+        }
+        return quantities;
+    }
+
+    private static Key deriveKey(String jwtSecret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), "HmacSHA256"));
+            return Keys.hmacShaKeyFor(mac.doFinal(KEY_LABEL.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot derive guest cart key", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.haui.coffee_shop.model.BestSellingSnapshot;
+import com.haui.coffee_shop.repository.BestSellingSnapshotRepository;
+import com.haui.coffee_shop.repository.OrderItemRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputes the best-selling top-N lists (last 90 days, completed orders) for the global view, every
+ * category, every brand and every category + brand pair from one grouped query, and serves them from an
+ * in-memory snapshot. The snapshot is also persisted so a restart can serve rankings before the first run.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BestSellingRankingService {
+    public static final int TOP_N = 15;
+    private static final int WINDOW_DAYS = 90;
+
+    private final OrderItemRepository orderItemRepository;
+    private final BestSellingSnapshotRepository bestSellingSnapshotRepository;
+    private final CatalogCacheService catalogCacheService;
+
+    private volatile Map<String, List<Long>> rankings = Map.of();
+
+    public static String rankingKey(Long categoryId, Long brandId) {
+        if (categoryId == null && brandId == null) {
+            return "all";
+        }
+        if (brandId == null) {
+            return "c:" + categoryId;
+        }
+        if (categoryId == null) {
+            return "b:" + brandId;
+        }
+        return "c:" + categoryId + "|b:" + brandId;
+    }
+
+    public List<Long> getTopProductIds(Long categoryId, Long brandId) {
+        return rankings.getOrDefault(rankingKey(categoryId, brandId), List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        Map<String, List<Long>> loaded = new HashMap<>();
+        for (BestSellingSnapshot snapshot : bestSellingSnapshotRepository.findAll()) {
+            List<Long> productIds = snapshot.getProductIds() == null || snapshot.getProductIds().isEmpty()
+                    ? List.of()
+                    : Arrays.stream(snapshot.getProductIds().split(",")).map(Long::valueOf).toList();
+            loaded.put(snapshot.getRankingKey(), productIds);
+        }
+        // Chỉ dùng bản lưu nếu job chưa kịp chạy
+        if (rankings.isEmpty()) {
+            rankings = loaded;
+        }
+        log.info("Loaded {} best-selling rankings from snapshot", loaded.size());
+    }
+
+    @Scheduled(fixedDelayString = "${best-selling.refresh-ms:300000}", initialDelayString = "${best-selling.initial-delay-ms:30000}")
+    @Transactional
+    public void refresh() {
+        Date fromDate = Date.from(LocalDate.now().minusDays(WINDOW_DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Map<String, Map<Long, Long>> soldByKey = new HashMap<>();
+        for (Object[] row : orderItemRepository.findSoldByProductSince(fromDate)) {
+            Long productId = (Long) row[0];
+            Long categoryId = (Long) row[1];
+            Long brandId = (Long) row[2];
+            long sold = row[3] == null ? 0 : ((Number) row[3]).longValue();
+
+            Set<String> keys = new HashSet<>();
+            keys.add(rankingKey(null, null));
+            if (categoryId != null) {
+                keys.add(rankingKey(categoryId, null));
+            }
+            if (brandId != null) {
+                keys.add(rankingKey(null, brandId));
+            }
+            if (categoryId != null && brandId != null) {
+                keys.add(rankingKey(categoryId, brandId));
+            }
+            for (String key : keys) {
+                soldByKey.computeIfAbsent(key, k -> new HashMap<>()).merge(productId, sold, Long::sum);
+            }
+        }
+
+        Map<String, List<Long>> computed = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Long>> entry : soldByKey.entrySet()) {
+            computed.put(entry.getKey(), entry.getValue().entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(TOP_N)
+                    .map(Map.Entry::getKey)
+                    .toList());
+        }
+        rankings = computed;
+        catalogCacheService.evictIf(key -> key.startsWith(CatalogCacheService.BEST_SELLING_PREFIX));
+
+        Date now = new Date();
+        List<BestSellingSnapshot> snapshots = computed.entrySet().stream()
+                .map(entry -> new BestSellingSnapshot(entry.getKey(),
+                        entry.getValue().stream().map(String::valueOf).collect(Collectors.joining(",")), now))
+                .toList();
+        bestSellingSnapshotRepository.deleteAllInBatch();
+        bestSellingSnapshotRepository.saveAll(snapshots);
+        log.debug("Refreshed {} best-selling rankings", computed.size());
+    }
+}
@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 public class BrandService {
     private final BrandRepository brandRepository;
     private final MessageBuilder messageBuilder;
+    private final CatalogCacheService catalogCacheService;
 
     public RespMessage addBrand(BrandRequest brandRequest) {
         if (brandRequest.getName() == null || brandRequest.getName().trim().isEmpty()) {
@@ -79,6 +80,7 @@ public class BrandService {
             brandEntity.setDescription(brandRequest.getDescription());
             try {
                 Brand savedBrand = brandRepository.save(brandEntity);
+                catalogCacheService.evictAll();
                 BrandResponse brandResponse = convertToBrandResponse(savedBrand);
                 return messageBuilder.buildSuccessMessage(brandResponse);
             } catch (Exception e) {
@@ -96,6 +98,7 @@ public class BrandService {
             brandToDelete.setStatus(Status.INACTIVE);
             try {
                 Brand savedBrand = brandRepository.save(brandToDelete);
+                catalogCacheService.evictAll();
                 BrandResponse brandResponse = convertToBrandResponse(savedBrand);
                 return messageBuilder.buildSuccessMessage(brandResponse);
             } catch (Exception e) {
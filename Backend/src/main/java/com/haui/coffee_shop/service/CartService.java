@@ -1,25 +1,31 @@
 package com.haui.coffee_shop.service;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.enums.CartOperationType;
+import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.*;
+import com.haui.coffee_shop.payload.request.CartBulkRequest;
 import com.haui.coffee_shop.payload.request.CartItemRequest;
+import com.haui.coffee_shop.payload.request.CartOperationRequest;
+import com.haui.coffee_shop.payload.request.GuestCartMergeRequest;
+import com.haui.coffee_shop.payload.request.GuestCartRequest;
 import com.haui.coffee_shop.payload.response.CartItemResponse;
+import com.haui.coffee_shop.payload.response.CartResponse;
+import com.haui.coffee_shop.payload.response.GuestCartResponse;
 import com.haui.coffee_shop.payload.response.ProductItemResponse;
 import com.haui.coffee_shop.payload.response.ProductResponse;
 import com.haui.coffee_shop.payload.response.RespMessage;
 import com.haui.coffee_shop.repository.CartItemRepository;
-import com.haui.coffee_shop.repository.ImageRepository;
 import com.haui.coffee_shop.repository.ProductItemRepository;
 import com.haui.coffee_shop.repository.UserRepository;
+import com.haui.coffee_shop.security.GuestCartTokenCodec;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,10 +35,11 @@ public class CartService {
     public final ProductItemRepository productItemRepository;
     public final CartItemRepository cartItemRepository;
     public final UserRepository userRepository;
-    private final ImageRepository imageRepository;
     private final ProductService productService;
+    private final ProductResponseAssembler productResponseAssembler;
+    private final CartStore cartStore;
+    private final GuestCartTokenCodec guestCartTokenCodec;
 
-    @Transactional
     public RespMessage addCartItem(CartItemRequest request) {
         if (request.getQuantity() <= 0) {
             throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Quantity"}, "Quantity must be greater than 0");
@@ -48,39 +55,19 @@ public class CartService {
         if (productItemOpt.isEmpty()) {
             throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"ProductItem"}, "ProductItem not found");
         }
-        Optional<User> userOpt = userRepository.findById(request.getUserId());
-        if (userOpt.isEmpty()) {
-            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"UserId"}, "UserId not found");
-        }
+        // Giỏ nằm trong bộ nhớ, ghi xuống cart_item ở nền; user không tồn tại thì CartStore báo lỗi khi nạp giỏ
+        CartStore.CartLine line = cartStore.add(request.getUserId(), request.getProductItemId(), request.getQuantity());
         try {
-
             ProductItem productItem = productItemOpt.get();
-            User user = userOpt.get();
-
-
-            Optional<CartItem> cartItemOptional = cartItemRepository.findByUserIdAndProductItemId(request.getUserId(), request.getProductItemId());
-            CartItem cartItem;
-            if (cartItemOptional.isPresent()) {
-                cartItem = cartItemOptional.get();
-                cartItem.setQuantity(cartItem.getQuantity() + request.getQuantity());
-            } else {
-
-                cartItem = CartItem.builder()
-                        .productItem(productItem)
-                        .quantity(request.getQuantity())
-                        .user(user)
-                        .build();
-            }
-            cartItemRepository.save(cartItem);
-
             ProductItemResponse productItemResponse = toProductItemResponse(productItem);
 
-
             CartItemResponse cartItemResponse = new CartItemResponse(
-                    cartItem.getId(),
+                    line.getId(),
                     productItemResponse,
-                    cartItem.getQuantity(),
-                    cartItem.getUser().getId()
+                    line.getQuantity(),
+                    request.getUserId(),
+                    unitPriceOf(productItem),
+                    unitPriceOf(productItem) * line.getQuantity()
             );
 
             return messageBuilder.buildSuccessMessage(cartItemResponse);
@@ -93,34 +80,118 @@ public class CartService {
         if (userId <= 0) {
             throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"UserId"}, "UserId invalid");
         }
+        return messageBuilder.buildSuccessMessage(toCartResponse(cartStore.getLines(userId), userId).getItems());
+    }
+
+    public RespMessage getCart(Long userId) {
+        if (userId <= 0) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"UserId"}, "UserId invalid");
+        }
+        return messageBuilder.buildSuccessMessage(toCartResponse(cartStore.getLines(userId), userId));
+    }
+
+    /**
+     * Dựng giỏ hàng với số truy vấn cố định bất kể số dòng: một câu nạp product item kèm product,
+     * một câu ảnh và một câu product_summary cho cả giỏ. Dòng có product item không còn tồn tại bị bỏ qua.
+     */
+    public CartResponse toCartResponse(List<CartStore.CartLine> lines, Long userId) {
         try {
+            Map<Long, ProductItem> productItemById = new HashMap<>();
+            if (!lines.isEmpty()) {
+                for (ProductItem productItem : productItemRepository.findWithProductByIdIn(
+                        lines.stream().map(CartStore.CartLine::getProductItemId).collect(Collectors.toSet()))) {
+                    productItemById.put(productItem.getId(), productItem);
+                }
+            }
+            Map<Long, ProductResponse> productResponseMap = productResponseAssembler.toProductResponseMap(
+                    productItemById.values().stream().map(ProductItem::getProduct).toList());
 
-            List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-            List<CartItemResponse> cartItemResponses = cartItems.stream().map(cartItem -> {
-                ProductItemResponse productItemResponse = toProductItemResponse(cartItem.getProductItem());
-                return new CartItemResponse(
-                        cartItem.getId(),
-                        productItemResponse,
-                        cartItem.getQuantity(),
-                        cartItem.getUser().getId()
-                );
-            }).collect(Collectors.toList());
-            return messageBuilder.buildSuccessMessage(cartItemResponses);
+            List<CartItemResponse> items = new ArrayList<>();
+            int totalQuantity = 0;
+            double subtotal = 0;
+            for (CartStore.CartLine line : lines) {
+                ProductItem productItem = productItemById.get(line.getProductItemId());
+                if (productItem == null) {
+                    continue;
+                }
+                double unitPrice = unitPriceOf(productItem);
+                items.add(new CartItemResponse(
+                        line.getId(),
+                        toProductItemResponse(productItem, productResponseMap.get(productItem.getProduct().getId())),
+                        line.getQuantity(),
+                        userId,
+                        unitPrice,
+                        unitPrice * line.getQuantity()
+                ));
+                totalQuantity += line.getQuantity();
+                subtotal += unitPrice * line.getQuantity();
+            }
+            double shippingFee = items.isEmpty() ? 0 : Constant.SHIPPING_FEE;
+            return CartResponse.builder()
+                    .items(items)
+                    .itemCount(items.size())
+                    .totalQuantity(totalQuantity)
+                    .subtotal(subtotal)
+                    .shippingFee(shippingFee)
+                    .total(subtotal + shippingFee)
+                    .build();
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{"CartItem"}, "Get Cart Item failed");
         }
     }
 
+    // Kiểm tra toàn bộ thao tác với một lần nạp product item, trước khi áp dụng bất kỳ thao tác nào
+    private void validateOperations(List<CartOperationRequest> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[]{"Operations"}, "Operations cannot be empty");
+        }
+        Set<Long> productItemIds = new HashSet<>();
+        for (CartOperationRequest operation : operations) {
+            if (operation.getType() == null) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[]{"Type"}, "Operation type cannot be null");
+            }
+            if (operation.getType() != CartOperationType.REMOVE) {
+                if (operation.getQuantity() <= 0) {
+                    throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Quantity"}, "Quantity must be greater than 0");
+                }
+                productItemIds.add(operation.getProductItemId());
+            }
+        }
+        Map<Long, ProductItem> productItemById = new HashMap<>();
+        if (!productItemIds.isEmpty()) {
+            for (ProductItem productItem : productItemRepository.findAllById(productItemIds)) {
+                productItemById.put(productItem.getId(), productItem);
+            }
+        }
+        for (CartOperationRequest operation : operations) {
+            if (operation.getType() == CartOperationType.REMOVE) {
+                continue;
+            }
+            ProductItem productItem = productItemById.get(operation.getProductItemId());
+            if (productItem == null || productItem.getStatus() != Status.ACTIVE) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"ProductItem"}, "ProductItem not found");
+            }
+            if (operation.getType() == CartOperationType.SET && operation.getQuantity() > productItem.getStock()) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Quantity"}, "Quantity must be less than or equal to ProductItem quantity");
+            }
+        }
+    }
+
+    private List<CartStore.CartLine> toGuestLines(Map<Long, Integer> quantities) {
+        List<CartStore.CartLine> lines = new ArrayList<>();
+        quantities.forEach((productItemId, quantity) -> lines.add(new CartStore.CartLine(0, productItemId, quantity)));
+        return lines;
+    }
+
+    // discount là số tiền giảm trên một sản phẩm, giống cách tính tổng đơn hàng
+    public static double unitPriceOf(ProductItem productItem) {
+        return productItem.getPrice() - productItem.getDiscount();
+    }
+
     public RespMessage updateCartItem( CartItemRequest cartItemRequest) {
         ProductItem productItem = productItemRepository.findById(cartItemRequest.getProductItemId())
                 .orElseThrow(() -> new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"ProductItem"}, "ProductItem not found"));
 
-        User user = userRepository.findById(cartItemRequest.getUserId()).orElseThrow(
-                () -> new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"UserId"}, "UserId not found"));
-
-        CartItem cartItem = cartItemRepository.findByUserIdAndProductItemId(cartItemRequest.getUserId(), cartItemRequest.getProductItemId())
-                .orElseThrow(() -> new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"CartItem"}, "CartItem not found"));
-
         if (cartItemRequest.getQuantity() <= 0) {
             throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Quantity"}, "Quantity must be greater than 0");
         }
@@ -128,33 +199,106 @@ public class CartService {
             throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"Quantity"}, "Quantity must be less than or equal to ProductItem quantity");
         }
 
-        cartItem.setQuantity(cartItemRequest.getQuantity());
+        CartStore.CartLine line = cartStore.set(cartItemRequest.getUserId(), cartItemRequest.getProductItemId(), cartItemRequest.getQuantity());
+        if (line == null) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"CartItem"}, "CartItem not found");
+        }
+        return messageBuilder.buildSuccessMessage("update cartItem thành công ");
+    }
 
-        try {
-            cartItemRepository.save(cartItem);
-//            return messageBuilder.buildSuccessMessage(cartItem);
-            return messageBuilder.buildSuccessMessage("update cartItem thành công ");
+    /**
+     * Áp dụng nhiều thao tác add / set / remove trong một request (gộp giỏ khách sau đăng nhập, đặt lại đơn cũ).
+     * Kiểm tra hết với một lần nạp product item rồi mới áp dụng, có lỗi thì giỏ không đổi.
+     */
+    public RespMessage applyOperations(CartBulkRequest request) {
+        if (request.getUserId() <= 0) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"UserId"}, "UserId invalid");
+        }
+        validateOperations(request.getOperations());
+        List<CartStore.CartLine> lines = cartStore.applyAll(request.getUserId(), request.getOperations());
+        return messageBuilder.buildSuccessMessage(toCartResponse(lines, request.getUserId()));
+    }
 
-        } catch (Exception e) {
-            throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{"CartItem"}, "Update Cart Item failed");
+    public RespMessage getGuestCart(String cartToken) {
+        Map<Long, Integer> quantities = guestCartTokenCodec.decode(cartToken);
+        return messageBuilder.buildSuccessMessage(GuestCartResponse.builder()
+                .cartToken(cartToken)
+                .cart(toCartResponse(toGuestLines(quantities), null))
+                .build());
+    }
+
+    // Giỏ của khách chỉ đọc product item để kiểm tra và tính giá, không ghi gì xuống DB
+    public RespMessage applyGuestOperations(GuestCartRequest request) {
+        Map<Long, Integer> quantities = guestCartTokenCodec.decode(request.getCartToken());
+        validateOperations(request.getOperations());
+        for (CartOperationRequest operation : request.getOperations()) {
+            switch (operation.getType()) {
+                case ADD -> quantities.merge(operation.getProductItemId(), operation.getQuantity(), Integer::sum);
+                case SET -> quantities.put(operation.getProductItemId(), operation.getQuantity());
+                case REMOVE -> quantities.remove(operation.getProductItemId());
+            }
+        }
+        return messageBuilder.buildSuccessMessage(GuestCartResponse.builder()
+                .cartToken(guestCartTokenCodec.encode(quantities))
+                .cart(toCartResponse(toGuestLines(quantities), null))
+                .build());
+    }
+
+    /**
+     * Gộp giỏ khách vào giỏ của người dùng sau khi đăng nhập: mỗi dòng lấy max(số lượng đang có, số lượng trong
+     * token) nên gửi lại cùng token không nhân đôi giỏ; sản phẩm đã ngừng bán trong lúc khách còn giữ token thì
+     * bỏ qua thay vì làm hỏng cả lần gộp.
+     */
+    public RespMessage mergeGuestCart(GuestCartMergeRequest request) {
+        if (request.getUserId() <= 0) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"UserId"}, "UserId invalid");
+        }
+        Map<Long, Integer> quantities = guestCartTokenCodec.decode(request.getCartToken());
+        Map<Long, Integer> activeQuantities = new LinkedHashMap<>();
+        if (!quantities.isEmpty()) {
+            Set<Long> activeIds = productItemRepository.findAllById(quantities.keySet()).stream()
+                    .filter(productItem -> productItem.getStatus() == Status.ACTIVE)
+                    .map(ProductItem::getId)
+                    .collect(Collectors.toSet());
+            quantities.forEach((productItemId, quantity) -> {
+                if (activeIds.contains(productItemId) && quantity > 0) {
+                    activeQuantities.put(productItemId, quantity);
+                }
+            });
         }
+        List<CartStore.CartLine> lines = activeQuantities.isEmpty()
+                ? cartStore.getLines(request.getUserId())
+                : cartStore.mergeMax(request.getUserId(), activeQuantities);
+        return messageBuilder.buildSuccessMessage(toCartResponse(lines, request.getUserId()));
     }
 
     public RespMessage deleteCartItem(Long itemId) {
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"CartItem"},
-                        "Cart Item not found with Id: " + itemId));
-        cartItemRepository.delete(cartItem);
+        if (!cartStore.removeById(itemId)) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"CartItem"},
+                    "Cart Item not found with Id: " + itemId);
+        }
         return messageBuilder.buildSuccessMessage("Delete cart Item successfully");
     }
 
     public ProductItemResponse toProductItemResponse(ProductItem productItem) {
+        return toProductItemResponse(productItem, productService.getProductResponse(productItem.getProduct()));
+    }
+
+    public List<ProductItemResponse> toProductItemResponses(List<ProductItem> productItems) {
+        Map<Long, ProductResponse> productResponseMap = productResponseAssembler.toProductResponseMap(
+                productItems.stream().map(ProductItem::getProduct).toList());
+        return productItems.stream()
+                .map(productItem -> toProductItemResponse(productItem, productResponseMap.get(productItem.getProduct().getId())))
+                .toList();
+    }
+
+    private ProductItemResponse toProductItemResponse(ProductItem productItem, ProductResponse productResponse) {
         return ProductItemResponse.builder()
                 .id(productItem.getId())
                 .price(productItem.getPrice())
                 .stock(productItem.getStock())
                 .discount(productItem.getDiscount())
-                .productResponse(productService.getProductResponse(productItem.getProduct()))
+                .productResponse(productResponse)
                 .status(productItem.getStatus())
                 .type(productItem.getType())
                 .build();
@@ -0,0 +1,515 @@
+package com.haui.coffee_shop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.model.CartItem;
+import com.haui.coffee_shop.payload.request.CartOperationRequest;
+import com.haui.coffee_shop.repository.CartItemRepository;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+import com.haui.coffee_shop.repository.UserRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Write-behind cart store. A user's cart is loaded from cart_item once, then every add / set / remove is
+ * applied to the in-memory copy under the lock of the user's shard and only marks the line dirty; a
+ * scheduled flush writes the latest quantity of each dirty line (one insert, update or delete per line, no
+ * matter how many clicks) back to cart_item. A hard crash loses at most one flush interval of changes;
+ * checkout and shutdown flush immediately. Lines not yet inserted get a temporary negative id so the
+ * client can still address them.
+ */
+@Service
+@Slf4j
+public class CartStore {
+    private final CartItemRepository cartItemRepository;
+    private final UserRepository userRepository;
+    private final ProductItemRepository productItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleMillis;
+    private final Shard[] shards;
+
+    // id dòng giỏ (tạm hoặc thật) -> userId, chỉ cho các giỏ đang nằm trong bộ nhớ
+    private final Map<Long, Long> ownerByItemId = new ConcurrentHashMap<>();
+    private final AtomicLong tempIds = new AtomicLong();
+
+    public CartStore(CartItemRepository cartItemRepository,
+                     UserRepository userRepository,
+                     ProductItemRepository productItemRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${cart.shards:16}") int shardCount,
+                     @Value("${cart.idle-minutes:30}") long idleMinutes) {
+        this.cartItemRepository = cartItemRepository;
+        this.userRepository = userRepository;
+        this.productItemRepository = productItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleMillis = idleMinutes * 60 * 1000;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public List<CartLine> getLines(long userId) {
+        return withCart(userId, this::activeLines);
+    }
+
+    public CartLine add(long userId, long productItemId, int quantity) {
+        return withCart(userId, cart -> {
+            Line line = cart.lines.computeIfAbsent(productItemId, id -> newLine(userId, id));
+            line.quantity += quantity;
+            cart.dirty.add(productItemId);
+            return line.toCartLine();
+        });
+    }
+
+    // Trả về null nếu sản phẩm chưa có trong giỏ
+    public CartLine set(long userId, long productItemId, int quantity) {
+        return withCart(userId, cart -> {
+            Line line = cart.lines.get(productItemId);
+            if (line == null || line.quantity <= 0) {
+                return null;
+            }
+            line.quantity = quantity;
+            cart.dirty.add(productItemId);
+            return line.toCartLine();
+        });
+    }
+
+    public boolean remove(long userId, long productItemId) {
+        return withCart(userId, cart -> {
+            Line line = cart.lines.get(productItemId);
+            if (line == null || line.quantity <= 0) {
+                return false;
+            }
+            // Giữ dòng với quantity 0 tới lần flush sau để còn biết id cần xóa
+            line.quantity = 0;
+            cart.dirty.add(productItemId);
+            return true;
+        });
+    }
+
+    // Áp dụng cả danh sách dưới một lần khóa shard: request khác của cùng người dùng không chen vào giữa
+    public List<CartLine> applyAll(long userId, List<CartOperationRequest> operations) {
+        return withCart(userId, cart -> {
+            for (CartOperationRequest operation : operations) {
+                long productItemId = operation.getProductItemId();
+                switch (operation.getType()) {
+                    case ADD -> cart.lines.computeIfAbsent(productItemId, id -> newLine(userId, id)).quantity += operation.getQuantity();
+                    case SET -> cart.lines.computeIfAbsent(productItemId, id -> newLine(userId, id)).quantity = operation.getQuantity();
+                    case REMOVE -> {
+                        Line line = cart.lines.get(productItemId);
+                        if (line == null) {
+                            continue;
+                        }
+                        line.quantity = 0;
+                    }
+                }
+                cart.dirty.add(productItemId);
+            }
+            return activeLines(cart);
+        });
+    }
+
+    // Gộp giỏ khách: mỗi dòng lấy max(số lượng hiện có, số lượng trong giỏ khách) nên gộp lại cùng token không cộng dồn
+    public List<CartLine> mergeMax(long userId, Map<Long, Integer> quantities) {
+        return withCart(userId, cart -> {
+            quantities.forEach((productItemId, quantity) -> {
+                Line line = cart.lines.computeIfAbsent(productItemId, id -> newLine(userId, id));
+                if (quantity > line.quantity) {
+                    line.quantity = quantity;
+                    cart.dirty.add(productItemId);
+                }
+            });
+            return activeLines(cart);
+        });
+    }
+
+    public boolean removeById(long itemId) {
+        if (itemId == 0) {
+            return false;
+        }
+        Long userId = ownerByItemId.get(itemId);
+        if (userId == null && itemId > 0) {
+            userId = cartItemRepository.findUserIdById(itemId).orElse(null);
+        }
+        if (userId == null) {
+            return false;
+        }
+        return withCart(userId, cart -> {
+            for (Line line : cart.lines.values()) {
+                if ((line.id == itemId || line.tempId == itemId) && line.quantity > 0) {
+                    line.quantity = 0;
+                    cart.dirty.add(line.productItemId);
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cart.flush-ms:2000}")
+    public void flushAll() {
+        long now = System.currentTimeMillis();
+        for (Shard shard : shards) {
+            List<Long> userIds;
+            shard.lock.lock();
+            try {
+                userIds = new ArrayList<>(shard.carts.keySet());
+            } finally {
+                shard.lock.unlock();
+            }
+            for (Long userId : userIds) {
+                flush(userId);
+            }
+            evictIdle(shard, now);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    /**
+     * Ghi ngay các thay đổi đang chờ của một người dùng, gọi trước khi đặt đơn. Không được gọi trong một
+     * transaction khác: join vào thì rollback làm lệch id trong bộ nhớ, còn REQUIRES_NEW thì mỗi đơn
+     * chiếm hai connection của pool.
+     */
+    public void flush(long userId) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Cart flush must run before the caller's transaction is opened");
+        Shard shard = shardOf(userId);
+        UserCart cart;
+        shard.lock.lock();
+        try {
+            cart = shard.carts.get(userId);
+        } finally {
+            shard.lock.unlock();
+        }
+        if (cart == null) {
+            return;
+        }
+        // Hai lần flush cùng một giỏ (định kỳ và checkout) chạy lần lượt để không insert trùng dòng mới
+        synchronized (cart.flushMonitor) {
+            flush(userId, shard, cart);
+        }
+    }
+
+    private void flush(long userId, Shard shard, UserCart cart) {
+        List<Line> inserts = new ArrayList<>();
+        List<Integer> insertQuantities = new ArrayList<>();
+        Map<Long, Integer> updates = new HashMap<>();
+        Map<Long, Line> updatedLines = new HashMap<>();
+        Map<Long, Line> deletes = new HashMap<>();
+        Set<Long> pending;
+        shard.lock.lock();
+        try {
+            if (cart.dirty.isEmpty()) {
+                return;
+            }
+            pending = new HashSet<>(cart.dirty);
+            cart.dirty.clear();
+            cart.flushing = true;
+            for (Long productItemId : pending) {
+                Line line = cart.lines.get(productItemId);
+                if (line.id == 0 && line.quantity > 0) {
+                    inserts.add(line);
+                    insertQuantities.add(line.quantity);
+                } else if (line.id != 0 && line.quantity > 0) {
+                    updates.put(line.id, line.quantity);
+                    updatedLines.put(line.id, line);
+                } else if (line.id != 0) {
+                    deletes.put(line.id, line);
+                }
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        try {
+            // Mỗi lần flush một transaction riêng, id ghi ngược vào bộ nhớ luôn là dòng đã thực sự commit
+            List<Line> insertedLines = new ArrayList<>();
+            List<CartItem> saved = transactionTemplate.execute(status -> {
+                insertedLines.clear();
+                List<CartItem> newItems = new ArrayList<>();
+                for (int i = 0; i < inserts.size(); i++) {
+                    insertedLines.add(inserts.get(i));
+                    newItems.add(newCartItem(userId, inserts.get(i).productItemId, insertQuantities.get(i)));
+                }
+                updates.forEach((id, quantity) -> {
+                    // Dòng đã bị xóa ở nơi khác (ví dụ cùng đơn checkout) thì insert lại thay vì update vào khoảng không
+                    if (cartItemRepository.updateQuantity(id, quantity) == 0) {
+                        insertedLines.add(updatedLines.get(id));
+                        newItems.add(newCartItem(userId, updatedLines.get(id).productItemId, quantity));
+                    }
+                });
+                if (!deletes.isEmpty()) {
+                    cartItemRepository.deleteByIdIn(new ArrayList<>(deletes.keySet()));
+                }
+                return newItems.isEmpty() ? List.of() : cartItemRepository.saveAll(newItems);
+            });
+            shard.lock.lock();
+            try {
+                for (int i = 0; i < saved.size(); i++) {
+                    Line line = insertedLines.get(i);
+                    if (line.id != 0) {
+                        ownerByItemId.remove(line.id);
+                    }
+                    line.id = saved.get(i).getId();
+                    ownerByItemId.put(line.id, userId);
+                    // Người dùng đổi số lượng trong lúc insert thì lần flush sau sẽ update tiếp
+                    if (line.quantity != saved.get(i).getQuantity()) {
+                        cart.dirty.add(line.productItemId);
+                    }
+                }
+                // Dòng được thêm lại trong lúc đang xóa vẫn giữ id vừa bị xóa: bỏ id đó để lần flush sau insert lại
+                deletes.forEach((id, line) -> {
+                    if (line.id == id) {
+                        ownerByItemId.remove(id);
+                        line.id = 0;
+                        if (line.quantity > 0) {
+                            cart.dirty.add(line.productItemId);
+                        }
+                    }
+                });
+            } finally {
+                shard.lock.unlock();
+            }
+        } catch (Exception e) {
+            log.error("Flush cart of user {} failed, will retry", userId, e);
+            shard.lock.lock();
+            try {
+                cart.dirty.addAll(pending);
+            } finally {
+                shard.lock.unlock();
+            }
+        } finally {
+            shard.lock.lock();
+            try {
+                cart.flushing = false;
+                // Dòng đã xóa (hoặc chưa từng insert) và không còn thay đổi nào thì bỏ khỏi bộ nhớ
+                cart.lines.values().removeIf(line -> {
+                    if (line.quantity > 0 || cart.dirty.contains(line.productItemId)) {
+                        return false;
+                    }
+                    forget(line);
+                    return true;
+                });
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Trừ các dòng vừa checkout khỏi giỏ sau khi transaction của đơn commit (rollback thì giỏ giữ nguyên).
+     * Chỉ trừ đúng số lượng đã đặt: sản phẩm người dùng thêm trong lúc checkout vẫn còn trong giỏ và được
+     * insert lại vì dòng cart_item cũ đã bị xóa cùng đơn.
+     */
+    public void removeCheckedOut(long userId, List<CartLine> checkedOut, Collection<Long> deletedIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            subtract(userId, checkedOut, deletedIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                subtract(userId, checkedOut, deletedIds);
+            }
+        });
+    }
+
+    // Giỏ đã rời bộ nhớ thì thôi: lần nạp sau đọc cart_item, vốn đã đúng sau khi xóa
+    private void subtract(long userId, List<CartLine> checkedOut, Collection<Long> deletedIds) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            UserCart cart = shard.carts.get(userId);
+            if (cart == null) {
+                return;
+            }
+            for (CartLine ordered : checkedOut) {
+                Line line = cart.lines.get(ordered.getProductItemId());
+                if (line == null) {
+                    continue;
+                }
+                if (line.id != 0 && deletedIds.contains(line.id)) {
+                    ownerByItemId.remove(line.id);
+                    line.id = 0;
+                }
+                // Còn dư thì insert lại phần dư, hết thì để quantity 0 cho flush xóa / bỏ dòng
+                line.quantity = Math.max(0, line.quantity - ordered.getQuantity());
+                cart.dirty.add(line.productItemId);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void evictIdle(Shard shard, long now) {
+        shard.lock.lock();
+        try {
+            shard.carts.values().removeIf(cart -> {
+                if (cart.flushing || !cart.dirty.isEmpty() || now - cart.lastAccess < idleMillis) {
+                    return false;
+                }
+                cart.lines.values().forEach(this::forget);
+                return true;
+            });
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Nạp giỏ từ DB ngoài khóa shard để một lần đọc chậm không chặn người dùng khác cùng shard
+    private UserCart load(long userId) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            UserCart cart = shard.carts.get(userId);
+            if (cart != null) {
+                return cart;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        List<Object[]> rows = cartItemRepository.findLinesByUserId(userId);
+        if (rows.isEmpty() && !userRepository.existsById(userId)) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"UserId"}, "UserId not found");
+        }
+        UserCart loaded = new UserCart();
+        for (Object[] row : rows) {
+            Line line = new Line((Long) row[1], 0);
+            line.id = (Long) row[0];
+            line.quantity = (Integer) row[2];
+            loaded.lines.put(line.productItemId, line);
+        }
+
+        shard.lock.lock();
+        try {
+            UserCart existing = shard.carts.putIfAbsent(userId, loaded);
+            if (existing != null) {
+                return existing;
+            }
+            loaded.lines.values().forEach(line -> ownerByItemId.put(line.id, userId));
+            return loaded;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Chạy action dưới khóa shard; nếu giỏ vừa bị dọn khỏi bộ nhớ giữa lúc nạp và lúc lấy khóa thì nạp lại
+    private <T> T withCart(long userId, Function<UserCart, T> action) {
+        Shard shard = shardOf(userId);
+        while (true) {
+            UserCart cart = load(userId);
+            shard.lock.lock();
+            try {
+                if (shard.carts.get(userId) == cart) {
+                    cart.touch();
+                    return action.apply(cart);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    private List<CartLine> activeLines(UserCart cart) {
+        List<CartLine> lines = new ArrayList<>();
+        for (Line line : cart.lines.values()) {
+            if (line.quantity > 0) {
+                lines.add(line.toCartLine());
+            }
+        }
+        return lines;
+    }
+
+    private Line newLine(long userId, long productItemId) {
+        Line line = new Line(productItemId, -tempIds.incrementAndGet());
+        ownerByItemId.put(line.tempId, userId);
+        return line;
+    }
+
+    private void forget(Line line) {
+        if (line.tempId != 0) {
+            ownerByItemId.remove(line.tempId);
+        }
+        if (line.id != 0) {
+            ownerByItemId.remove(line.id);
+        }
+    }
+
+    private CartItem newCartItem(long userId, long productItemId, int quantity) {
+        return CartItem.builder()
+                .user(userRepository.getReferenceById(userId))
+                .productItem(productItemRepository.getReferenceById(productItemId))
+                .quantity(quantity)
+                .build();
+    }
+
+    private Shard shardOf(long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CartLine {
+        // id thật của cart_item, hoặc id tạm (âm) khi dòng chưa được ghi xuống DB
+        private final long id;
+        private final long productItemId;
+        private final int quantity;
+    }
+
+    private static class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, UserCart> carts = new HashMap<>();
+    }
+
+    private static class UserCart {
+        private final Object flushMonitor = new Object();
+        // Giữ thứ tự thêm vào giỏ
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> dirty = new HashSet<>();
+        private boolean flushing;
+        private long lastAccess = System.currentTimeMillis();
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    private static class Line {
+        private final long productItemId;
+        private final long tempId;
+        private long id;
+        private int quantity;
+
+        Line(long productItemId, long tempId) {
+            this.productItemId = productItemId;
+            this.tempId = tempId;
+        }
+
+        CartLine toCartLine() {
+            return new CartLine(id != 0 ? id : tempId, productItemId, quantity);
+        }
+    }
+}
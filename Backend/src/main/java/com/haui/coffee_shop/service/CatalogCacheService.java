@@ -0,0 +1,106 @@
+package com.haui.coffee_shop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.TtlCache;
+import com.haui.coffee_shop.event.ProductChangedEvent;
+import com.haui.coffee_shop.event.ProductSummaryChangedEvent;
+import com.haui.coffee_shop.payload.response.CacheStatsResponse;
+import com.haui.coffee_shop.payload.response.RespMessage;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches the read-only catalog responses of {@link ProductService}. Entries expire after the TTL and
+ * are dropped once the transaction that published a {@link ProductChangedEvent} (the product, its category
+ * or its brand) or a {@link ProductSummaryChangedEvent} (rating, total sold, price range) has committed.
+ */
+@Service
+@Slf4j
+public class CatalogCacheService {
+    public static final String ALL_PRODUCTS_KEY = "all";
+    public static final String BEST_SELLING_PREFIX = "best:";
+    private static final String PRODUCT_PREFIX = "product:";
+
+    private final TtlCache<String, RespMessage> cache;
+
+    public CatalogCacheService(@Value("${catalog.cache.max-size:1000}") int maxSize,
+                               @Value("${catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = new TtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public static String productKey(long productId) {
+        return PRODUCT_PREFIX + productId;
+    }
+
+    public static String categoryKey(long categoryId) {
+        return "category:" + categoryId;
+    }
+
+    public static String brandKey(long brandId) {
+        return "brand:" + brandId;
+    }
+
+    public static String bestSellingKey(String rankingKey) {
+        return BEST_SELLING_PREFIX + rankingKey;
+    }
+
+    public RespMessage get(String key, Supplier<RespMessage> loader) {
+        return cache.get(key, loader);
+    }
+
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    public void evictIf(Predicate<String> predicate) {
+        cache.invalidateIf(predicate);
+    }
+
+    // Category/brand được nhúng trong mọi ProductResponse nên đổi chúng thì xóa toàn bộ cache
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // Chạy sau khi transaction ghi commit: xóa trước commit thì lượt đọc xen giữa sẽ nạp lại dữ liệu cũ vào cache
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidateIf(key -> key.equals(ALL_PRODUCTS_KEY)
+                || key.startsWith(BEST_SELLING_PREFIX)
+                || key.equals(productKey(event.getProductId()))
+                || event.getCategoryIds().stream().anyMatch(id -> key.equals(categoryKey(id)))
+                || event.getBrandIds().stream().anyMatch(id -> key.equals(brandKey(id))));
+        log.debug("Catalog cache invalidated for product {}", event.getProductId());
+    }
+
+    // Summary không biết category/brand của product nên xóa mọi danh sách; ProductResponse nhúng rating, số đã bán, khoảng giá
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductSummaryChanged(ProductSummaryChangedEvent event) {
+        if (event.getProductIds().isEmpty()) {
+            return;
+        }
+        cache.invalidateIf(key -> !key.startsWith(PRODUCT_PREFIX)
+                || event.getProductIds().stream().anyMatch(id -> key.equals(productKey(id))));
+        log.debug("Catalog cache invalidated for summary of products {}", event.getProductIds());
+    }
+
+    public CacheStatsResponse getStats() {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        return CacheStatsResponse.builder()
+                .size(cache.size())
+                .maxSize(cache.getMaxSize())
+                .ttlMillis(cache.getTtlMillis())
+                .hits(hits)
+                .misses(misses)
+                .hitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                .evictions(cache.getEvictions())
+                .expirations(cache.getExpirations())
+                .build();
+    }
+}
@@ -22,6 +22,7 @@ public class CategoryService {
     final CategoryRepository categoryRepository;
     final MessageBuilder messageBuilder;
     final CloudinaryService cloudinaryService;
+    final CatalogCacheService catalogCacheService;
 
     public RespMessage getAllCategories() {
         List<Category> categories = categoryRepository.findAllCategories()
@@ -108,6 +109,7 @@ public class CategoryService {
         }
         try {
             categoryRepository.save(existingCategory);
+            catalogCacheService.evictAll();
             return messageBuilder.buildSuccessMessage(existingCategory);
         } catch (Exception e) {
             throw new RuntimeException("Category could not be saved");
@@ -124,6 +126,7 @@ public class CategoryService {
         category.setStatus(Status.INACTIVE);
         try {
             categoryRepository.save(category);
+            catalogCacheService.evictAll();
             return messageBuilder.buildSuccessMessage(category.getId());
         } catch (Exception e) {
             throw new RuntimeException("Category could not be deleted");
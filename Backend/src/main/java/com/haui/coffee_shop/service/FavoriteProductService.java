@@ -21,6 +21,7 @@ import com.haui.coffee_shop.repository.UserRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +34,7 @@ public class FavoriteProductService {
     private final MessageBuilder messageBuilder;
     public final UserRepository userRepository;
     private final ProductService productService;
+    private final ProductResponseAssembler productResponseAssembler;
 
 
     public RespMessage getFavoriteProducts(Long userId) {
@@ -40,11 +42,14 @@ public class FavoriteProductService {
             throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"UserId"}, "UserId invalid");
         }
 
-        List<FavoriteProduct> favoriteProducts = favoriteProductRepository.findByUserId(userId);
-        List<FavoriteProductResponse> favoriteProductResponses = favoriteProducts.stream()
+        List<FavoriteProduct> favoriteProducts = favoriteProductRepository.findByUserId(userId).stream()
                 .filter(favoriteProduct -> favoriteProduct.getProduct().getStatus().equals(Status.ACTIVE))
+                .toList();
+        Map<Long, ProductResponse> productResponseMap = productResponseAssembler.toProductResponseMap(
+                favoriteProducts.stream().map(FavoriteProduct::getProduct).toList());
+        List<FavoriteProductResponse> favoriteProductResponses = favoriteProducts.stream()
                 .map(favoriteProduct -> {
-                    ProductResponse productResponse =productService.getProductResponse(favoriteProduct.getProduct());
+                    ProductResponse productResponse = productResponseMap.get(favoriteProduct.getProduct().getId());
                     return new FavoriteProductResponse(
                             favoriteProduct.getId(),
                             productResponse,
@@ -0,0 +1,217 @@
+package com.haui.coffee_shop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.haui.coffee_shop.payload.response.FlashSaleStatsResponse;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission queue for flash-sale items. Stock decrements for a flagged ProductItem are not run by the
+ * request threads (which would all queue on the same row lock) but handed to the partition that owns the
+ * item; each partition has a single writer thread that drains its queue in micro-batches, tries the summed
+ * amount per item in one conditional UPDATE and falls back to one UPDATE per caller when stock runs out.
+ * Callers get a future that completes with true (admitted, stock already decremented) or false (sold out).
+ */
+@Service
+@Slf4j
+public class FlashSaleQueue {
+    private final ProductItemRepository productItemRepository;
+    private final int maxBatch;
+    private final long admissionTimeoutMillis;
+    private final List<BlockingQueue<Admission>> partitions = new ArrayList<>();
+    private final ExecutorService writers;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder admissionNanos = new LongAdder();
+    private final AtomicLong maxAdmissionNanos = new AtomicLong();
+
+    public FlashSaleQueue(ProductItemRepository productItemRepository,
+                          @Value("${flash-sale.partitions:8}") int partitionCount,
+                          @Value("${flash-sale.max-batch:64}") int maxBatch,
+                          @Value("${flash-sale.admission-timeout-ms:5000}") long admissionTimeoutMillis) {
+        this.productItemRepository = productItemRepository;
+        this.maxBatch = maxBatch;
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(partitionCount, runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < partitionCount; i++) {
+            BlockingQueue<Admission> queue = new LinkedBlockingQueue<>();
+            partitions.add(queue);
+            writers.execute(() -> drain(queue));
+        }
+    }
+
+    public CompletableFuture<Boolean> admit(long productItemId, int amount) {
+        Admission admission = new Admission(productItemId, amount);
+        partitions.get(Math.floorMod(Long.hashCode(productItemId), partitions.size())).add(admission);
+        return admission.result;
+    }
+
+    /**
+     * Trừ kho các dòng flash sale của một đơn. Trả về false nếu có dòng hết hàng, khi đó các dòng đã trừ được
+     * trả lại kho. Nếu đang trong transaction, phần đã trừ cũng được trả lại khi transaction rollback.
+     * Phần trừ kho do luồng writer commit riêng, nên việc trả lại luôn chạy ngoài transaction của đơn
+     * (nếu chạy trong đó thì sẽ bị rollback cùng đơn và kho mất luôn).
+     */
+    public boolean admitAll(Map<Long, Integer> amountByProductItem) {
+        Map<Long, CompletableFuture<Boolean>> futures = new LinkedHashMap<>();
+        amountByProductItem.forEach((productItemId, amount) -> futures.put(productItemId, admit(productItemId, amount)));
+
+        Map<Long, Integer> admittedAmounts = new HashMap<>();
+        boolean allAdmitted = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(admissionTimeoutMillis);
+        for (Map.Entry<Long, CompletableFuture<Boolean>> entry : futures.entrySet()) {
+            Long productItemId = entry.getKey();
+            int amount = amountByProductItem.get(productItemId);
+            try {
+                if (entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    admittedAmounts.put(productItemId, amount);
+                } else {
+                    allAdmitted = false;
+                }
+            } catch (TimeoutException e) {
+                // Quá hạn chờ: nếu sau đó vẫn được trừ thì trả lại kho
+                allAdmitted = false;
+                entry.getValue().thenAccept(success -> {
+                    if (success) {
+                        restore(Map.of(productItemId, amount));
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                allAdmitted = false;
+            } catch (ExecutionException e) {
+                allAdmitted = false;
+            }
+        }
+        if (!allAdmitted) {
+            restore(admittedAmounts);
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(admittedAmounts);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    public FlashSaleStatsResponse getStats() {
+        List<Integer> depths = partitions.stream().map(BlockingQueue::size).toList();
+        long admittedCount = admitted.sum();
+        long rejectedCount = rejected.sum();
+        long total = admittedCount + rejectedCount;
+        return FlashSaleStatsResponse.builder()
+                .partitions(partitions.size())
+                .queueDepth(depths.stream().mapToInt(Integer::intValue).sum())
+                .queueDepthByPartition(depths)
+                .admitted(admittedCount)
+                .rejected(rejectedCount)
+                .batches(batches.sum())
+                .avgAdmissionMillis(total == 0 ? 0 : admissionNanos.sum() / 1_000_000.0 / total)
+                .maxAdmissionMillis(TimeUnit.NANOSECONDS.toMillis(maxAdmissionNanos.get()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // Trả lại kho phần đã được nhận. Chạy ở luồng khác để có transaction riêng, không dính vào transaction
+    // (có thể đang rollback) của người gọi
+    public void restore(Map<Long, Integer> amounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> productItemRepository.incrementStock(amounts))
+                .exceptionally(e -> {
+                    log.error("Cannot restore flash sale stock {}", amounts, e);
+                    return null;
+                });
+    }
+
+    private void drain(BlockingQueue<Admission> queue) {
+        List<Admission> batch = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            try {
+                apply(batch);
+            } catch (RuntimeException e) {
+                log.error("Flash sale batch failed", e);
+                batch.forEach(admission -> admission.result.completeExceptionally(e));
+            }
+            batches.increment();
+            batch.clear();
+        }
+        queue.forEach(admission -> admission.result.cancel(false));
+    }
+
+    // Gộp theo item, giữ thứ tự đến trong từng item
+    private void apply(List<Admission> batch) {
+        Map<Long, List<Admission>> byItem = new LinkedHashMap<>();
+        for (Admission admission : batch) {
+            byItem.computeIfAbsent(admission.productItemId, id -> new ArrayList<>()).add(admission);
+        }
+        for (Map.Entry<Long, List<Admission>> entry : byItem.entrySet()) {
+            List<Admission> admissions = entry.getValue();
+            int total = admissions.stream().mapToInt(admission -> admission.amount).sum();
+            if (admissions.size() > 1 && productItemRepository.decrementStockIfAvailable(entry.getKey(), total) == 1) {
+                admissions.forEach(admission -> complete(admission, true));
+                continue;
+            }
+            // Không đủ cho cả nhóm: xét từng người theo thứ tự đến
+            for (Admission admission : admissions) {
+                complete(admission, productItemRepository.decrementStockIfAvailable(entry.getKey(), admission.amount) == 1);
+            }
+        }
+    }
+
+    private void complete(Admission admission, boolean success) {
+        long waited = System.nanoTime() - admission.enqueuedAt;
+        admissionNanos.add(waited);
+        maxAdmissionNanos.accumulateAndGet(waited, Math::max);
+        (success ? admitted : rejected).increment();
+        admission.result.complete(success);
+    }
+
+    private static class Admission {
+        private final long productItemId;
+        private final int amount;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Admission(long productItemId, int amount) {
+            this.productItemId = productItemId;
+            this.amount = amount;
+        }
+    }
+}
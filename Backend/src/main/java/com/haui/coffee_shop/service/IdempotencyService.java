@@ -0,0 +1,212 @@
+package com.haui.coffee_shop.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.common.TtlCache;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.model.IdempotencyRecord;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays the first response for a repeated Idempotency-Key instead of running the write again. Recent
+ * responses live in a bounded TTL cache backed by the idempotency_record table (so a retry after a restart
+ * is still recognised); concurrent requests with the same key wait for the one already running.
+ * Keys are scoped by endpoint and caller. 5xx responses are not stored so the client can retry them.
+ * Each record also keeps a SHA-256 fingerprint of the request; reusing a key with a different request is
+ * rejected with 422 instead of replaying a response that belongs to another payload.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long WAIT_SECONDS = 30;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MessageBuilder messageBuilder;
+    private final long ttlMillis;
+    private final TtlCache<String, StoredResponse> cache;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              MessageBuilder messageBuilder,
+                              @Value("${idempotency.cache.max-size:10000}") int maxSize,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.messageBuilder = messageBuilder;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.cache = new TtlCache<>(maxSize, ttlMillis);
+    }
+
+    // request: body (hoặc tham số) của request, dùng để lấy dấu; cùng key mà khác request thì trả 422
+    public ResponseEntity<RespMessage> execute(String idempotencyKey, String scope, Object request,
+                                               Supplier<ResponseEntity<RespMessage>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.FIELD_NOT_VALID, new Object[]{HEADER}, HEADER + " is too long");
+            return new ResponseEntity<>(respMessage, HttpStatus.BAD_REQUEST);
+        }
+        String recordKey = recordKey(scope, idempotencyKey);
+        String requestHash = sha256(GsonUtil.getInstance().toJson(request));
+
+        StoredResponse stored = find(recordKey);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> future = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(recordKey, future);
+        if (running != null) {
+            return waitFor(running, requestHash);
+        }
+        try {
+            // Có thể request trước vừa lưu xong giữa lúc kiểm tra và lúc đăng ký
+            stored = find(recordKey);
+            if (stored != null) {
+                future.complete(stored);
+                return replay(stored, requestHash);
+            }
+            ResponseEntity<RespMessage> response = action.get();
+            stored = new StoredResponse(response.getStatusCode().value(), GsonUtil.getInstance().toJson(response.getBody()), requestHash);
+            if (!response.getStatusCode().is5xxServerError()) {
+                save(recordKey, stored);
+            }
+            future.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(recordKey, future);
+        }
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void deleteExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(new Date());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency records", deleted);
+        }
+    }
+
+    private StoredResponse find(String recordKey) {
+        StoredResponse stored = cache.get(recordKey);
+        if (stored != null) {
+            return stored;
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findById(recordKey)
+                .filter(r -> r.getExpiresAt().after(new Date()))
+                .orElse(null);
+        if (record == null) {
+            return null;
+        }
+        stored = new StoredResponse(record.getStatusCode(), record.getResponseBody(), record.getRequestHash());
+        cache.put(recordKey, stored);
+        return stored;
+    }
+
+    private void save(String recordKey, StoredResponse stored) {
+        cache.put(recordKey, stored);
+        Date now = new Date();
+        try {
+            idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                    .recordKey(recordKey)
+                    .statusCode(stored.statusCode)
+                    .responseBody(stored.body)
+                    .requestHash(stored.requestHash)
+                    .createdAt(now)
+                    .expiresAt(new Date(now.getTime() + ttlMillis))
+                    .build());
+        } catch (RuntimeException e) {
+            // Request đã chạy xong, lỗi lưu bản ghi chỉ làm mất khả năng phát lại sau khi khởi động lại
+            log.warn("Cannot persist idempotency record {}", recordKey, e);
+        }
+    }
+
+    private ResponseEntity<RespMessage> waitFor(CompletableFuture<StoredResponse> running, String requestHash) {
+        StoredResponse stored;
+        try {
+            stored = running.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.SYSTEM_ERROR, null, "Request with the same " + HEADER + " is still in progress");
+            return new ResponseEntity<>(respMessage, HttpStatus.CONFLICT);
+        }
+        return replay(stored, requestHash);
+    }
+
+    // Bản ghi cũ chưa có dấu request thì vẫn phát lại như trước
+    private ResponseEntity<RespMessage> replay(StoredResponse stored, String requestHash) {
+        if (stored.requestHash != null && !stored.requestHash.equals(requestHash)) {
+            RespMessage respMessage = messageBuilder.buildFailureMessage(Constant.FIELD_NOT_VALID, new Object[]{HEADER},
+                    HEADER + " was already used with a different request");
+            return new ResponseEntity<>(respMessage, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return stored.toResponseEntity();
+    }
+
+    // scope + người gọi + key, băm lại để độ dài cố định
+    private String recordKey(String scope, String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication == null ? "anonymous" : authentication.getName();
+        return scope + ":" + sha256(caller + "\n" + idempotencyKey);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class StoredResponse {
+        private final int statusCode;
+        private final String body;
+        private final String requestHash;
+
+        private StoredResponse(int statusCode, String body, String requestHash) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.requestHash = requestHash;
+        }
+
+        // data được giữ dạng JsonElement nên được ghi ra nguyên như lần trả đầu tiên
+        private ResponseEntity<RespMessage> toResponseEntity() {
+            JsonObject json = JsonParser.parseString(body).getAsJsonObject();
+            JsonElement data = json.get("data");
+            RespMessage respMessage = RespMessage.builder()
+                    .respCode(json.get("respCode").isJsonNull() ? null : json.get("respCode").getAsString())
+                    .respDesc(json.get("respDesc").isJsonNull() ? null : json.get("respDesc").getAsString())
+                    .data(data == null || data.isJsonNull() ? null : data)
+                    .build();
+            return new ResponseEntity<>(respMessage, HttpStatus.valueOf(statusCode));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.haui.coffee_shop.common.Constant;
 import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.common.enums.OutboxEventType;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.config.OnlinePaymentConfig;
 import com.haui.coffee_shop.exception.CoffeeShopException;
@@ -11,6 +12,7 @@ import com.haui.coffee_shop.model.Order;
 import com.haui.coffee_shop.model.Transaction;
 import com.haui.coffee_shop.payload.response.PaymentResponse;
 import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.repository.OrderItemRepository;
 import com.haui.coffee_shop.repository.OrderRepository;
 import com.haui.coffee_shop.repository.TransactionRepository;
 
@@ -41,6 +43,18 @@ public class OnlinePaymentService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductSummaryService productSummaryService;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OutboxService outboxService;
+
     @Value("${frontend-url}")
     private String frontEndUrl;
 
@@ -233,6 +247,10 @@ public class OnlinePaymentService {
                     try {
                         orderRepository.save(order1);
                         transactionRepository.save(transaction1);
+                        productSummaryService.onOrderCancelled(orderItemRepository.findByOrderId(orderId));
+                        orderSummaryService.onStatusChanged(order1);
+                        outboxService.publish(OutboxEventType.ORDER_CANCELLED, orderId,
+                                Map.of("orderId", orderId, "status", order1.getStatus().toString()));
                         return messageBuilder.buildSuccessMessage(transaction1.toTransactionResponse());
                     } catch (CoffeeShopException e ){
                         throw new CoffeeShopException(Constant.SYSTEM_ERROR,null, "Cannot save transaction");
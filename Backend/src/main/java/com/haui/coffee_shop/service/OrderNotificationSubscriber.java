@@ -0,0 +1,43 @@
+package com.haui.coffee_shop.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import com.haui.coffee_shop.common.enums.OutboxEventType;
+import com.haui.coffee_shop.model.OrderSummary;
+import com.haui.coffee_shop.model.OutboxEvent;
+import com.haui.coffee_shop.repository.OrderSummaryRepository;
+
+// Báo cho khách khi đơn được tạo / đổi trạng thái qua /topic/order/{userId}; mọi message trên topic này cùng một dạng
+// (payload sự kiện outbox + "event"), kết quả đặt đơn bất đồng bộ đi topic riêng của OrderPipelineService
+@Component
+@RequiredArgsConstructor
+public class OrderNotificationSubscriber implements OutboxSubscriber {
+    public static final String TOPIC_PREFIX = "/topic/order/";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    @Override
+    public boolean supports(OutboxEventType eventType) {
+        return eventType == OutboxEventType.ORDER_CREATED
+                || eventType == OutboxEventType.ORDER_STATUS_CHANGED
+                || eventType == OutboxEventType.ORDER_CANCELLED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        JsonObject payload = JsonParser.parseString(event.getPayload()).getAsJsonObject();
+        Long userId = payload.has("userId") && !payload.get("userId").isJsonNull()
+                ? payload.get("userId").getAsLong()
+                : orderSummaryRepository.findById(event.getAggregateId()).map(OrderSummary::getUserId).orElse(null);
+        if (userId == null) {
+            return;
+        }
+        payload.addProperty("event", event.getEventType().toString());
+        messagingTemplate.convertAndSend(TOPIC_PREFIX + userId, payload.toString());
+    }
+}
@@ -0,0 +1,148 @@
+package com.haui.coffee_shop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.common.TtlCache;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.model.ShippingAddress;
+import com.haui.coffee_shop.model.User;
+import com.haui.coffee_shop.payload.request.OrderRequest;
+import com.haui.coffee_shop.payload.response.OrderPipelineResult;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.repository.UserRepository;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accept-then-process order placement. The request thread only runs the cheap validation and returns a
+ * reference; the order itself is placed by a virtual thread and the outcome ({@link OrderPipelineResult}) is
+ * pushed to /topic/order-pipeline/{userId} (and kept for a while for polling). That topic carries only pipeline
+ * results; order lifecycle events go to {@link OrderNotificationSubscriber#TOPIC_PREFIX}. A semaphore caps how many orders hit the
+ * database at once, independently of how many HTTP requests are accepted, and the number of accepted but
+ * unfinished orders is bounded so a burst is rejected instead of piling up.
+ */
+@Service
+@Slf4j
+public class OrderPipelineService {
+    public static final String TOPIC_PREFIX = "/topic/order-pipeline/";
+
+    private final OrderService orderService;
+    private final UserRepository userRepository;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore dbPermits;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final TtlCache<String, OrderPipelineResult> results;
+
+    public OrderPipelineService(OrderService orderService,
+                                UserRepository userRepository,
+                                SimpMessageSendingOperations messagingTemplate,
+                                @Value("${order-pipeline.max-concurrency:16}") int maxConcurrency,
+                                @Value("${order-pipeline.max-pending:1000}") int maxPending,
+                                @Value("${order-pipeline.result-ttl-minutes:30}") long resultTtlMinutes) {
+        this.orderService = orderService;
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.dbPermits = new Semaphore(maxConcurrency, true);
+        this.maxPending = maxPending;
+        this.results = new TtlCache<>(maxPending * 10, TimeUnit.MINUTES.toMillis(resultTtlMinutes));
+    }
+
+    public OrderPipelineResult submit(OrderRequest orderRequest) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new CoffeeShopException(Constant.UNAUTHORIZED, null, "User not found by email: " + userEmail + "get from token!"));
+        ShippingAddress shippingAddress = orderService.validateOrderRequest(orderRequest);
+        // Kết quả và topic gắn với người gọi, không nhận địa chỉ của người khác (giống checkout)
+        if (shippingAddress.getUser().getId() != user.getId()) {
+            throw new CoffeeShopException(Constant.NOT_FOUND, new Object[] {"shipping_address"}, "ShippingAddress not found");
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{"order"}, "Too many orders in progress, please retry");
+        }
+        long userId = user.getId();
+        String reference = UUID.randomUUID().toString();
+        OrderPipelineResult accepted = OrderPipelineResult.builder()
+                .reference(reference)
+                .status(OrderPipelineResult.PENDING)
+                .build();
+        results.put(key(userId, reference), accepted);
+
+        // addOrder đọc người dùng từ SecurityContext nên phải mang context sang luồng xử lý
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        try {
+            workers.execute(() -> process(reference, userId, orderRequest, securityContext));
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        return accepted;
+    }
+
+    public OrderPipelineResult getResult(String reference) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new CoffeeShopException(Constant.UNAUTHORIZED, null, "User not found by email: " + userEmail + "get from token!"));
+        OrderPipelineResult result = results.get(key(user.getId(), reference));
+        if (result == null) {
+            throw new CoffeeShopException(Constant.NOT_FOUND, new Object[]{"reference"}, "Order reference not found or expired");
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void process(String reference, long userId, OrderRequest orderRequest, SecurityContext securityContext) {
+        OrderPipelineResult.OrderPipelineResultBuilder result = OrderPipelineResult.builder().reference(reference);
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            dbPermits.acquire();
+            try {
+                RespMessage respMessage = orderService.addOrder(orderRequest);
+                result.status(OrderPipelineResult.COMPLETED)
+                        .orderId((Long) respMessage.getData())
+                        .respCode(respMessage.getRespCode());
+            } finally {
+                dbPermits.release();
+            }
+        } catch (CoffeeShopException e) {
+            result.status(OrderPipelineResult.FAILED).respCode(e.getCode()).message(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.status(OrderPipelineResult.FAILED).respCode(Constant.SYSTEM_ERROR).message("Order processing interrupted");
+        } catch (RuntimeException e) {
+            log.error("Async order {} failed", reference, e);
+            result.status(OrderPipelineResult.FAILED).respCode(Constant.UNDEFINED).message(e.getMessage());
+        } finally {
+            SecurityContextHolder.clearContext();
+            pending.decrementAndGet();
+        }
+
+        OrderPipelineResult finished = result.build();
+        results.put(key(userId, reference), finished);
+        messagingTemplate.convertAndSend(TOPIC_PREFIX + userId, GsonUtil.getInstance().toJson(finished));
+    }
+
+    private String key(long userId, String reference) {
+        return userId + ":" + reference;
+    }
+}
@@ -1,33 +1,52 @@
 package com.haui.coffee_shop.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.CursorCodec;
 import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.common.enums.OutboxEventType;
 import com.haui.coffee_shop.common.enums.PaymentMethod;
 import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.*;
+import com.haui.coffee_shop.payload.request.CheckoutRequest;
 import com.haui.coffee_shop.payload.request.OrderItemRequest;
 import com.haui.coffee_shop.payload.request.OrderRequest;
+import com.haui.coffee_shop.payload.request.OrderSearchRequest;
+import com.haui.coffee_shop.payload.request.OrderStatusBulkRequest;
 import com.haui.coffee_shop.payload.response.OrderItemResponse;
+import com.haui.coffee_shop.payload.response.OrderPageResponse;
 import com.haui.coffee_shop.payload.response.OrderResponse;
+import com.haui.coffee_shop.payload.response.OrderTransitionResponse;
 import com.haui.coffee_shop.payload.response.RespMessage;
 import com.haui.coffee_shop.payload.response.ShippingAddressResponse;
 import com.haui.coffee_shop.repository.*;
 
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class OrderService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private OrderRepository orderRepository;
@@ -43,33 +62,38 @@ public class OrderService {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private ImageRepository imageRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ProductSummaryService productSummaryService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private FlashSaleQueue flashSaleQueue;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     public RespMessage getAllOrders() {
         List<Order> orders = orderRepository.findAll();
-        List<OrderResponse> orderResponses = new ArrayList<>();
-        for (Order order : orders) {
-            OrderResponse orderResponse = new OrderResponse();
-            orderResponse.setOrderId(order.getId());
-            orderResponse.setOrderDate(order.getOrderDate());
-            orderResponse.setOrderStatus(order.getStatus().toString());
-            orderResponse.setPaymentMethod(order.getPaymentMethod().toString());
-            orderResponse.setShippingAddress(order.getShippingAddress().toResponse());
-            List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-            List<OrderItemResponse> orderItemResponses = orderItems.stream().map(this::toOrderItemResponse).toList();
-            double totalPrice = 0;
-            for (OrderItem orderItem : orderItems) {
-                totalPrice += (orderItem.getPrice() - orderItem.getDiscount())*orderItem.getAmount();
-            }
-            totalPrice += 10000;
-            orderResponse.setOrderItems(orderItemResponses);
-            orderResponse.setTotal(totalPrice);
-            orderResponses.add(orderResponse);
-        }
-        return messageBuilder.buildSuccessMessage(orderResponses);
+        return messageBuilder.buildSuccessMessage(toOrderResponses(orders));
     }
 
     public RespMessage getOrderById(long orderId) {
@@ -80,14 +104,14 @@ public class OrderService {
             OrderResponse orderResponse = new OrderResponse();
             orderResponse.setOrderId(order.getId());
             orderResponse.setOrderDate(order.getOrderDate());
-            List<OrderItemResponse> orderItemResponses = orderItems.stream().map(this::toOrderItemResponse).toList();
-            double totalPrice = 0;
-            for (OrderItem orderItem : orderItems) {
-                totalPrice += (orderItem.getPrice() - orderItem.getDiscount())*orderItem.getAmount();
-            }
-            totalPrice += 10000;
+            Map<Long, String> imageByProduct = orderSummaryService.getFirstImages(orderItems.stream()
+                    .map(orderItem -> orderItem.getProductItem().getProduct().getId())
+                    .toList());
+            List<OrderItemResponse> orderItemResponses = orderItems.stream()
+                    .map(orderItem -> toOrderItemResponse(orderItem, imageByProduct))
+                    .toList();
             orderResponse.setOrderItems(orderItemResponses);
-            orderResponse.setTotal(totalPrice);
+            orderResponse.setTotal(OrderSummaryService.totalOf(orderItems));
             orderResponse.setOrderStatus(order.getStatus().toString());
             orderResponse.setShippingAddress(order.getShippingAddress().toResponse());
             orderResponse.setPaymentMethod(order.getPaymentMethod().toString());
@@ -96,11 +120,16 @@ public class OrderService {
         throw new RuntimeException("Order not found");
     }
 
-    @Transactional
-    public RespMessage addOrder(OrderRequest orderRequest){
-        if (orderRequest.getOrderItems().isEmpty()) {
+    // Kiểm tra nhanh không đụng tới kho, dùng chung cho đặt đơn đồng bộ và bất đồng bộ
+    public ShippingAddress validateOrderRequest(OrderRequest orderRequest) {
+        if (orderRequest.getOrderItems() == null || orderRequest.getOrderItems().isEmpty()) {
             throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[] {"order_items"}, "OrderItems cannot be empty");
         }
+        for (OrderItemRequest orderItemRequest : orderRequest.getOrderItems()) {
+            if (orderItemRequest.getAmount() <= 0) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[] {"order_amount"}, "Amount Item must be greater than 0");
+            }
+        }
         Optional<ShippingAddress> shippingAddress = shippingAddressRepository.findById(orderRequest.getShippingAddressId());
         if ( shippingAddress.isEmpty() ){
             throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[] {"shipping_address"}, "ShippingAddress cannot be null");
@@ -109,68 +138,229 @@ public class OrderService {
         if ( shippingAddressStatus.equals(Status.INACTIVE)){
             throw new CoffeeShopException(Constant.NOT_FOUND, new Object[] {"shipping_address"}, "ShippingAddress not found");
         }
+        return shippingAddress.get();
+    }
+
+    // Không dùng @Transactional: giỏ hàng phải được flush trước khi transaction của đơn mở ra, nếu không
+    // các dòng flush sẽ rollback cùng đơn trong khi CartStore đã ghi nhận id của chúng
+    public RespMessage addOrder(OrderRequest orderRequest){
+        ShippingAddress shippingAddress = validateOrderRequest(orderRequest);
+        // Giỏ hàng ghi trễ, đặt đơn thì ghi ngay phần còn chờ xuống cart_item
+        cartStore.flush(shippingAddress.getUser().getId());
+        Map<Long, Integer> admitted = admitFlashSale(orderRequest.getOrderItems(), orderRequest.getReservationId(),
+                ownerEmail(shippingAddress));
+        return executeAdmitted(admitted, status -> placeOrder(shippingAddress, orderRequest, false, admitted));
+    }
+
+    /**
+     * Đặt đơn từ giỏ hàng của người dùng đang đăng nhập trong một transaction: giá và giảm giá lấy từ
+     * ProductItem, kho trừ bằng một câu UPDATE như addOrder, rồi xóa các dòng đã đặt bằng một câu DELETE.
+     * Giống addOrder, giỏ được flush trước khi transaction của đơn mở ra để không giữ hai connection.
+     */
+    public RespMessage checkout(CheckoutRequest checkoutRequest) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new CoffeeShopException(Constant.UNAUTHORIZED, null, "User not found by email: " + userEmail + "get from token!"));
+        // Chờ lần flush đang chạy (nếu có) để cart_item khớp với giỏ trong bộ nhớ trước khi xóa
+        cartStore.flush(user.getId());
+        List<OrderItemRequest> cartItems = cartStore.getLines(user.getId()).stream()
+                .map(line -> new OrderItemRequest(line.getProductItemId(), line.getQuantity(), 0, 0))
+                .toList();
+        Map<Long, Integer> admitted = admitFlashSale(cartItems, checkoutRequest.getReservationId(), user.getEmail());
+        return executeAdmitted(admitted, status -> {
+            List<CartStore.CartLine> lines = cartStore.getLines(user.getId());
+            List<OrderItemRequest> orderItems = new ArrayList<>();
+            List<Long> cartItemIds = new ArrayList<>();
+            for (CartStore.CartLine line : lines) {
+                orderItems.add(new OrderItemRequest(line.getProductItemId(), line.getQuantity(), 0, 0));
+                // id âm là dòng chưa kịp ghi xuống DB, không có gì để xóa
+                if (line.getId() > 0) {
+                    cartItemIds.add(line.getId());
+                }
+            }
+            if (orderItems.isEmpty()) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[] {"cart"}, "Cart is empty");
+            }
+            OrderRequest orderRequest = new OrderRequest(orderItems, checkoutRequest.getShippingAddressId(),
+                    checkoutRequest.getPaymentMethod(), checkoutRequest.getReservationId());
+            ShippingAddress shippingAddress = validateOrderRequest(orderRequest);
+            if (shippingAddress.getUser().getId() != user.getId()) {
+                throw new CoffeeShopException(Constant.NOT_FOUND, new Object[] {"shipping_address"}, "ShippingAddress not found");
+            }
+            RespMessage respMessage = placeOrder(shippingAddress, orderRequest, true, admitted);
+            // Chỉ xóa đúng các dòng đã đặt, không đụng tới dòng người dùng vừa thêm trong lúc checkout
+            if (!cartItemIds.isEmpty()) {
+                cartItemRepository.deleteByIdIn(cartItemIds);
+            }
+            cartStore.removeCheckedOut(user.getId(), lines, cartItemIds);
+            return respMessage;
+        });
+    }
+
+    /**
+     * Trừ kho các dòng flash sale qua hàng đợi trước khi transaction của đơn mở ra, để không phải chờ hàng đợi
+     * trong lúc transaction đang giữ khóa dòng của các item thường. Phần reservation đang giữ thì không trừ.
+     * Trả về lượng đã trừ theo item, hết hàng thì báo lỗi như khi trừ kho trong đơn.
+     */
+    private Map<Long, Integer> admitFlashSale(List<OrderItemRequest> orderItems, String reservationId, String userEmail) {
+        Map<Long, Integer> amountByProductItem = new LinkedHashMap<>();
+        for (OrderItemRequest orderItemRequest : orderItems) {
+            amountByProductItem.merge(orderItemRequest.getProductItemId(), orderItemRequest.getAmount(), Integer::sum);
+        }
+        Map<Long, Integer> flashSaleAmounts = new LinkedHashMap<>();
+        if (amountByProductItem.isEmpty()) {
+            return flashSaleAmounts;
+        }
+        Map<Long, Integer> held = reservationId == null || reservationId.isBlank()
+                ? Map.of() : stockReservationService.getHeldAmounts(reservationId, userEmail);
+        for (ProductItem productItem : productItemRepository.findAllById(amountByProductItem.keySet())) {
+            int amount = amountByProductItem.get(productItem.getId()) - held.getOrDefault(productItem.getId(), 0);
+            if (productItem.isFlashSale() && amount > 0) {
+                flashSaleAmounts.put(productItem.getId(), amount);
+            }
+        }
+        if (!flashSaleAmounts.isEmpty() && !flashSaleQueue.admitAll(flashSaleAmounts)) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[] {"order_amount"}, "Amount Item cannot be greater than stock");
+        }
+        return flashSaleAmounts;
+    }
+
+    // Chủ đơn là chủ địa chỉ giao hàng, không phụ thuộc SecurityContext của luồng đang chạy
+    private static String ownerEmail(ShippingAddress shippingAddress) {
+        return shippingAddress.getUser() == null ? null : shippingAddress.getUser().getEmail();
+    }
+
+    // Phần flash sale trừ trước transaction được trả lại kho nếu transaction không commit
+    private RespMessage executeAdmitted(Map<Long, Integer> admitted, TransactionCallback<RespMessage> action) {
+        try {
+            return transactionTemplate.execute(action);
+        } catch (RuntimeException e) {
+            flashSaleQueue.restore(admitted);
+            throw e;
+        }
+    }
+
+    // serverPrices: lấy giá / giảm giá từ ProductItem thay vì tin giá client gửi lên
+    // admittedFlashSale: lượng flash sale đã trừ kho trước khi transaction mở ra (admitFlashSale)
+    private RespMessage placeOrder(ShippingAddress shippingAddress, OrderRequest orderRequest, boolean serverPrices,
+                                   Map<Long, Integer> admittedFlashSale) {
         Order order = new Order();
-        order.setShippingAddress(shippingAddress.get());
+        order.setShippingAddress(shippingAddress);
         order.setPaymentMethod(orderRequest.getPaymentMethod());
         order.setStatus(OrderStatus.Processing);
         order.setOrderDate(new Date());
         List<OrderItem> orderItems = new ArrayList<>();
+        Map<Long, Integer> amountByProductItem = new LinkedHashMap<>();
         for (OrderItemRequest orderItemRequest : orderRequest.getOrderItems()) {
-            long productItemId = orderItemRequest.getProductItemId();
-            Optional<ProductItem> productItemOptional = productItemRepository.findById(productItemId);
-
-            if (productItemOptional.isEmpty()) {
+            amountByProductItem.merge(orderItemRequest.getProductItemId(), orderItemRequest.getAmount(), Integer::sum);
+        }
+        // Nạp tất cả product item của đơn bằng một truy vấn
+        Map<Long, ProductItem> productItemById = new HashMap<>();
+        for (ProductItem productItem : productItemRepository.findAllById(amountByProductItem.keySet())) {
+            productItemById.put(productItem.getId(), productItem);
+        }
+        for (OrderItemRequest orderItemRequest : orderRequest.getOrderItems()) {
+            ProductItem productItem = productItemById.get(orderItemRequest.getProductItemId());
+            if (productItem == null) {
                 throw new CoffeeShopException(Constant.NOT_FOUND,  new Object[] {"product_item"}, "ProductItem not found");
             }
-
-            int stock = productItemOptional.get().getStock();
-            int orderedAmount = orderItemRequest.getAmount();
-
-            if (orderedAmount > stock) {
-                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[] {"order_amount"}, "Amount Item cannot be greater than stock");
-            }
-            try {
-                ProductItem productItem = productItemOptional.get();
-                productItem.setStock(productItem.getStock() - orderedAmount);
-                productItemRepository.save(productItem);
-            } catch (Exception e) {
-                throw new CoffeeShopException(Constant.UNDEFINED, new Object[] {"product_item"}, "Product item cannot be update at stock");
+            if (serverPrices && productItem.getStatus() != Status.ACTIVE) {
+                throw new CoffeeShopException(Constant.NOT_FOUND,  new Object[] {"product_item"}, "ProductItem not found");
             }
             OrderItem orderItem = new OrderItem();
-            orderItem.setProductItem(productItemOptional.get());
-            orderItem.setPrice(orderItemRequest.getPrice());
-            orderItem.setDiscount(orderItemRequest.getDiscount());
+            orderItem.setProductItem(productItem);
+            orderItem.setPrice(serverPrices ? productItem.getPrice() : orderItemRequest.getPrice());
+            orderItem.setDiscount(serverPrices ? productItem.getDiscount() : orderItemRequest.getDiscount());
             orderItem.setAmount(orderItemRequest.getAmount());
             orderItems.add(orderItem);
         }
+
+        // Phần đã giữ hàng thì không trừ kho lần nữa
+        Map<Long, Integer> amountToDecrement = new LinkedHashMap<>(amountByProductItem);
+        if (orderRequest.getReservationId() != null && !orderRequest.getReservationId().isBlank()) {
+            Map<Long, Integer> held = stockReservationService.consume(orderRequest.getReservationId(), ownerEmail(shippingAddress), amountByProductItem);
+            held.forEach((productItemId, amount) -> amountToDecrement.computeIfPresent(productItemId, (id, ordered) -> ordered - amount > 0 ? ordered - amount : null));
+        }
+        // Item đang flash sale trừ kho qua hàng đợi, không giữ khóa dòng trong transaction của đơn
+        Map<Long, Integer> flashSaleAmounts = new LinkedHashMap<>();
+        amountToDecrement.entrySet().removeIf(entry -> {
+            if (productItemById.get(entry.getKey()).isFlashSale()) {
+                flashSaleAmounts.put(entry.getKey(), entry.getValue());
+                return true;
+            }
+            return false;
+        });
+        // Giỏ hoặc reservation có thể đổi sau lần trừ trước transaction: thiếu thì trừ bù ở đây, trước khi khóa dòng
+        // item thường; dư thì trả lại kho khi đơn commit (rollback thì executeAdmitted trả lại toàn bộ)
+        Map<Long, Integer> missingFlashSale = new LinkedHashMap<>();
+        Map<Long, Integer> excessFlashSale = new LinkedHashMap<>();
+        flashSaleAmounts.forEach((productItemId, amount) -> {
+            int admitted = admittedFlashSale.getOrDefault(productItemId, 0);
+            if (amount > admitted) {
+                missingFlashSale.put(productItemId, amount - admitted);
+            }
+        });
+        admittedFlashSale.forEach((productItemId, admitted) -> {
+            int amount = flashSaleAmounts.getOrDefault(productItemId, 0);
+            if (admitted > amount) {
+                excessFlashSale.put(productItemId, admitted - amount);
+            }
+        });
+        if (!missingFlashSale.isEmpty() && !flashSaleQueue.admitAll(missingFlashSale)) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[] {"order_amount"}, "Amount Item cannot be greater than stock");
+        }
+        // Trừ kho bằng một câu UPDATE có điều kiện, thiếu dòng nào thì rollback cả đơn
+        if (!amountToDecrement.isEmpty() && productItemRepository.decrementStock(amountToDecrement) != amountToDecrement.size()) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[] {"order_amount"}, "Amount Item cannot be greater than stock");
+        }
         try {
             Order order1 = orderRepository.save(order);
             for (OrderItem orderItem : orderItems) {
                 orderItem.setOrder(order1);
-                orderItemRepository.save(orderItem);
             }
+            // Id cấp theo khối nên các dòng order_item được insert thành một batch JDBC
+            orderItemRepository.saveAll(orderItems);
+            // Dòng flash sale không cập nhật product_summary trong transaction của đơn (sản phẩm nóng, mọi đơn
+            // cùng chờ một dòng), mà cộng dồn sau khi commit và ghi theo lô
+            List<OrderItem> flashSaleItems = orderItems.stream().filter(orderItem -> orderItem.getProductItem().isFlashSale()).toList();
+            productSummaryService.onOrderPlaced(orderItems.stream().filter(orderItem -> !orderItem.getProductItem().isFlashSale()).toList());
+            orderSummaryService.onOrderCreated(order1, orderItems);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    flashSaleQueue.restore(excessFlashSale);
+                    productSummaryService.deferOrderPlaced(flashSaleItems);
+                }
+            });
+            publishOrderEvent(OutboxEventType.ORDER_CREATED, order1);
             return messageBuilder.buildSuccessMessage(order1.getId());
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{"order"}, "Order can not be added");
         }
     }
 
-    public RespMessage updateOrderStatus(long orderId) {
+    // expectedStatus là trạng thái client đang thấy; trạng thái chỉ đi tới nên lệch là client đã cũ
+    @Transactional
+    public RespMessage updateOrderStatus(long orderId, OrderStatus expectedStatus) {
         Optional<Order> orderOptional = orderRepository.findById(orderId);
         if (orderOptional.isPresent()) {
             Order order = orderOptional.get();
-            if (order.getStatus().equals(OrderStatus.Processing)){
-                order.setStatus(OrderStatus.Processed);
-            } else if (order.getStatus().equals(OrderStatus.Processed)) {
-                order.setStatus(OrderStatus.Shipping);
-            } else if (order.getStatus().equals(OrderStatus.Shipping)) {
-                order.setStatus(OrderStatus.Completed);
-            } else {
+            if (expectedStatus != null && order.getStatus() != expectedStatus) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"order"}, "Order was updated by another user, please reload");
+            }
+            OrderStatus nextStatus = order.getStatus().next();
+            if (nextStatus == null) {
                 throw new RuntimeException("Order can not be updated");
             }
+            order.setStatus(nextStatus);
             try {
-                orderRepository.save(order);
+                // flush để kiểm tra version ngay, đơn vừa bị người khác chuyển trạng thái thì báo lỗi thay vì ghi đè
+                orderRepository.saveAndFlush(order);
+                orderSummaryService.onStatusChanged(order);
+                publishOrderEvent(OutboxEventType.ORDER_STATUS_CHANGED, order);
                 return messageBuilder.buildSuccessMessage(order.getStatus());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"order"}, "Order was updated by another user, please reload");
             } catch (CoffeeShopException e){
                 throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{order}, "Order can not be updated");
             }
@@ -178,21 +368,80 @@ public class OrderService {
         throw new RuntimeException("Order not found");
     }
 
+    /**
+     * Chuyển trạng thái nhiều đơn trong một request: đọc status và version của tất cả đơn bằng một câu SELECT,
+     * rồi chuyển từng đơn với điều kiện đúng status và version đã đọc. Nhờ vậy biết chính xác đơn nào do request
+     * này chuyển; đơn bị người khác đổi trong lúc đó được báo CONFLICT và không sinh sự kiện.
+     */
+    @Transactional
+    public RespMessage bulkUpdateOrderStatus(OrderStatusBulkRequest request) {
+        if (request.getOrderIds() == null || request.getOrderIds().isEmpty()) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[]{"order_ids"}, "OrderIds cannot be empty");
+        }
+        if (request.getTargetStatus() == OrderStatus.Cancelled) {
+            // Hủy cần hoàn kho và hoàn tiền VNPay nên vẫn đi qua cancel-order từng đơn
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"target_status"}, "Orders must be cancelled one by one");
+        }
+        List<Long> orderIds = request.getOrderIds().stream().distinct().toList();
+        Map<Long, OrderStatus> currentStatus = new HashMap<>();
+        Map<Long, Long> currentVersion = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusAndVersionByIds(orderIds)) {
+            currentStatus.put((Long) row[0], (OrderStatus) row[1]);
+            currentVersion.put((Long) row[0], (Long) row[2]);
+        }
+
+        Map<Long, OrderTransitionResponse> outcomes = new LinkedHashMap<>();
+        Map<OrderStatus, List<Long>> updatedByStatus = new LinkedHashMap<>();
+        for (Long orderId : orderIds) {
+            OrderStatus fromStatus = currentStatus.get(orderId);
+            OrderTransitionResponse outcome = OrderTransitionResponse.builder()
+                    .orderId(orderId)
+                    .fromStatus(fromStatus == null ? null : fromStatus.toString())
+                    .build();
+            outcomes.put(orderId, outcome);
+            if (fromStatus == null) {
+                outcome.setResult(OrderTransitionResponse.NOT_FOUND);
+                continue;
+            }
+            OrderStatus toStatus = request.getTargetStatus() == null ? fromStatus.next() : request.getTargetStatus();
+            if (toStatus == null || !fromStatus.canTransitionTo(toStatus)) {
+                outcome.setResult(OrderTransitionResponse.INVALID_TRANSITION);
+                continue;
+            }
+            outcome.setToStatus(toStatus.toString());
+            if (orderRepository.transitionStatus(orderId, fromStatus, currentVersion.get(orderId), toStatus) == 1) {
+                outcome.setResult(OrderTransitionResponse.UPDATED);
+                updatedByStatus.computeIfAbsent(toStatus, status -> new ArrayList<>()).add(orderId);
+            } else {
+                outcome.setResult(OrderTransitionResponse.CONFLICT);
+            }
+        }
+
+        for (Map.Entry<OrderStatus, List<Long>> entry : updatedByStatus.entrySet()) {
+            orderSummaryService.onStatusChanged(entry.getValue(), entry.getKey());
+            for (Long orderId : entry.getValue()) {
+                outboxService.publish(OutboxEventType.ORDER_STATUS_CHANGED, orderId, Map.of("orderId", orderId, "status", entry.getKey().toString()));
+            }
+        }
+        return messageBuilder.buildSuccessMessage(new ArrayList<>(outcomes.values()));
+    }
+
     @Transactional
     public RespMessage cancelOrder(long orderId) {
         Optional<Order> orderOptional = orderRepository.findById(orderId);
         if (orderOptional.isPresent()) {
             Order order = orderOptional.get();
-            if (order.getStatus().equals(OrderStatus.Processing)) {
+            if (order.getStatus().canTransitionTo(OrderStatus.Cancelled)) {
                 order.setStatus(OrderStatus.Cancelled);
 
                 // ✅ Cộng lại số lượng vào kho
                 List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
+                Map<Long, Integer> amountByProductItem = new LinkedHashMap<>();
                 for (OrderItem orderItem : orderItems) {
-                    ProductItem productItem = orderItem.getProductItem();
-                    productItem.setStock(productItem.getStock() + orderItem.getAmount());
-                    productItemRepository.save(productItem);
+                    amountByProductItem.merge(orderItem.getProductItem().getId(), orderItem.getAmount(), Integer::sum);
                 }
+                productItemRepository.incrementStock(amountByProductItem);
+                productSummaryService.onOrderCancelled(orderItems);
 
             } else {
                 throw new CoffeeShopException(Constant.UNDEFINED, new Object[]{order}, "Order can not be cancelled");
@@ -216,6 +465,8 @@ public class OrderService {
 
                 try {
                     orderRepository.save(order);
+                    orderSummaryService.onStatusChanged(order);
+                    publishOrderEvent(OutboxEventType.ORDER_CANCELLED, order);
                     transactionRepository.save(transaction1);
                     return messageBuilder.buildSuccessMessage(order.getStatus());
                 } catch (CoffeeShopException e) {
@@ -225,6 +476,8 @@ public class OrderService {
             } else {
                 try {
                     orderRepository.save(order);
+                    orderSummaryService.onStatusChanged(order);
+                    publishOrderEvent(OutboxEventType.ORDER_CANCELLED, order);
                     return messageBuilder.buildSuccessMessage(order.getStatus());
                 } catch (CoffeeShopException e) {
                     throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{order}, "Order can not be cancelled");
@@ -241,56 +494,129 @@ public class OrderService {
             throw new CoffeeShopException(Constant.UNAUTHORIZED, null, "User not found by email: " + userEmail + "get from token!");
         User user = userOptional.get();
         List<Order> orders = orderRepository.findByUserId(user.getId());
-        List<OrderResponse> orderResponses = new ArrayList<>();
-        for (Order order : orders) {
-            List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-            List<OrderItemResponse> orderItemResponses = orderItems.stream().map(this::toOrderItemResponse).toList();
-            OrderResponse orderResponse = new OrderResponse();
-            orderResponse.setOrderId(order.getId());
-            orderResponse.setOrderDate(order.getOrderDate());
-            orderResponse.setOrderItems(orderItemResponses);
-            orderResponse.setOrderStatus(order.getStatus().toString());
-            orderResponse.setShippingAddress(order.getShippingAddress().toResponse());
-            orderResponse.setPaymentMethod(order.getPaymentMethod().toString());
-            orderResponses.add(orderResponse);
-        }
-
-        return messageBuilder.buildSuccessMessage(orderResponses);
+        return messageBuilder.buildSuccessMessage(toOrderResponses(orders));
     }
 
     public RespMessage getOrderByStatus(OrderStatus status) {
         try {
             List<Order> orders = orderRepository.findByStatus(status);
-            List<OrderResponse> orderResponses = new ArrayList<>();
-            for (Order order : orders) {
-                OrderResponse orderResponse = new OrderResponse();
-                orderResponse.setOrderId(order.getId());
-                orderResponse.setOrderDate(order.getOrderDate());
-                orderResponse.setOrderStatus(order.getStatus().toString());
-                orderResponse.setPaymentMethod(order.getPaymentMethod().toString());
-                orderResponse.setShippingAddress(order.getShippingAddress().toResponse());
-                List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-                List<OrderItemResponse> orderItemResponses = orderItems.stream().map(this::toOrderItemResponse).toList();
-                double totalPrice = 0;
-                for (OrderItem orderItem : orderItems) {
-                    totalPrice += (orderItem.getPrice() - orderItem.getDiscount())*orderItem.getAmount();
-                }
-                totalPrice += 10000;
-                orderResponse.setOrderItems(orderItemResponses);
-                orderResponse.setTotal(totalPrice);
-                orderResponses.add(orderResponse);
-            }
+            List<OrderResponse> orderResponses = toOrderResponses(orders);
             return messageBuilder.buildSuccessMessage(orderResponses);
         } catch (CoffeeShopException e) {
             throw new CoffeeShopException(Constant.UNDEFINED, null, "Order not found");
         }
     }
 
+    // Các màn danh sách chỉ cần bản tóm tắt: một truy vấn trên order_summary
+    public RespMessage getAllOrderSummaries() {
+        return messageBuilder.buildSuccessMessage(orderSummaryRepository.findAllNewestFirst().stream()
+                .map(orderSummaryService::toResponse)
+                .toList());
+    }
+
+    public RespMessage getOrderSummariesByStatus(OrderStatus status) {
+        return messageBuilder.buildSuccessMessage(orderSummaryRepository.findByStatus(status).stream()
+                .map(orderSummaryService::toResponse)
+                .toList());
+    }
+
+    public RespMessage getOrderSummariesByUser() {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new CoffeeShopException(Constant.UNAUTHORIZED, null, "User not found by email: " + userEmail + "get from token!"));
+        return messageBuilder.buildSuccessMessage(orderSummaryRepository.findByUserId(user.getId()).stream()
+                .map(orderSummaryService::toResponse)
+                .toList());
+    }
+
+    // Tìm kiếm đơn cho admin, phân trang theo con trỏ (order_date, order_id) nên trang nào cũng là một lần seek trên index
+    public RespMessage searchOrders(OrderSearchRequest request) {
+        int pageSize = request.getSize() == null ? DEFAULT_PAGE_SIZE : request.getSize();
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"size"}, "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (request.getFromDate() != null && request.getToDate() != null && request.getFromDate().isAfter(request.getToDate())) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"fromDate"}, "fromDate must not be after toDate");
+        }
+        Date lastDate = null;
+        Long lastId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] parts = CursorCodec.decode(request.getCursor(), 2);
+            try {
+                lastDate = new Date(Long.parseLong(parts[0]));
+                lastId = Long.valueOf(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"cursor"}, "Cursor not valid");
+            }
+        }
+        String email = request.getEmail() == null || request.getEmail().isBlank() ? null : request.getEmail().trim();
+        // toDate tính trọn ngày
+        Date fromDate = request.getFromDate() == null ? null
+                : Date.from(request.getFromDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date toDate = request.getToDate() == null ? null
+                : Date.from(request.getToDate().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        // Lấy dư một phần tử để biết còn trang sau hay không
+        List<OrderSummary> summaries = orderSummaryRepository.search(request.getStatus(), request.getPaymentMethod(), email,
+                fromDate, toDate, request.getMinTotal(), lastDate, lastId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = summaries.size() > pageSize;
+        List<OrderSummary> page = hasNext ? summaries.subList(0, pageSize) : summaries;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getOrderDate().getTime(), last.getOrderId());
+        }
+        return messageBuilder.buildSuccessMessage(OrderPageResponse.builder()
+                .items(page.stream().map(orderSummaryService::toResponse).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build());
+    }
+
+    private void publishOrderEvent(OutboxEventType eventType, Order order) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getShippingAddress().getUser() == null ? null : order.getShippingAddress().getUser().getId());
+        payload.put("status", order.getStatus().toString());
+        outboxService.publish(eventType, order.getId(), payload);
+    }
+
     public OrderItemResponse toOrderItemResponse(OrderItem orderItem) {
-        List<Image> productImages = imageRepository.findByProduct(orderItem.getProductItem().getProduct());
-        
-        String productImageUrl = productImages.isEmpty() ? "" : productImages.get(0).getUrl();
-        
+        return toOrderItemResponse(orderItem, orderSummaryService.getFirstImages(List.of(orderItem.getProductItem().getProduct().getId())));
+    }
+
+    // Danh sách đơn: nạp dòng hàng và ảnh của tất cả đơn trong hai truy vấn thay vì theo từng đơn / từng dòng
+    private List<OrderResponse> toOrderResponses(List<Order> orders) {
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        if (!orders.isEmpty()) {
+            for (OrderItem orderItem : orderItemRepository.findByOrderIdIn(orders.stream().map(Order::getId).toList())) {
+                itemsByOrder.computeIfAbsent(orderItem.getOrder().getId(), id -> new ArrayList<>()).add(orderItem);
+            }
+        }
+        Map<Long, String> imageByProduct = orderSummaryService.getFirstImages(itemsByOrder.values().stream()
+                .flatMap(List::stream)
+                .map(orderItem -> orderItem.getProductItem().getProduct().getId())
+                .toList());
+
+        List<OrderResponse> orderResponses = new ArrayList<>();
+        for (Order order : orders) {
+            List<OrderItem> orderItems = itemsByOrder.getOrDefault(order.getId(), List.of());
+            OrderResponse orderResponse = new OrderResponse();
+            orderResponse.setOrderId(order.getId());
+            orderResponse.setOrderDate(order.getOrderDate());
+            orderResponse.setOrderStatus(order.getStatus().toString());
+            orderResponse.setPaymentMethod(order.getPaymentMethod().toString());
+            orderResponse.setShippingAddress(order.getShippingAddress().toResponse());
+            orderResponse.setOrderItems(orderItems.stream().map(orderItem -> toOrderItemResponse(orderItem, imageByProduct)).toList());
+            orderResponse.setTotal(OrderSummaryService.totalOf(orderItems));
+            orderResponses.add(orderResponse);
+        }
+        return orderResponses;
+    }
+
+    private OrderItemResponse toOrderItemResponse(OrderItem orderItem, Map<Long, String> imageByProduct) {
+        String productImageUrl = imageByProduct.getOrDefault(orderItem.getProductItem().getProduct().getId(), "");
+
         return OrderItemResponse.builder()
                 .orderItemId(orderItem.getId())
                 .productItemId(orderItem.getProductItem().getId())
@@ -0,0 +1,177 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.enums.OrderStatus;
+import com.haui.coffee_shop.model.Order;
+import com.haui.coffee_shop.model.OrderItem;
+import com.haui.coffee_shop.model.OrderSummary;
+import com.haui.coffee_shop.model.User;
+import com.haui.coffee_shop.payload.response.OrderSummaryResponse;
+import com.haui.coffee_shop.repository.ImageRepository;
+import com.haui.coffee_shop.repository.OrderItemRepository;
+import com.haui.coffee_shop.repository.OrderRepository;
+import com.haui.coffee_shop.repository.OrderSummaryRepository;
+
+import java.util.*;
+
+/**
+ * Maintains order_summary, the denormalized row per order used by order listings: total (with shipping),
+ * item count, status, payment method, receiver and a short preview of the lines. Rows are written when an
+ * order is created and when its status changes, so a listing is a single indexed query.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderSummaryService {
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+    private static final int PREVIEW_MAX_LENGTH = 500;
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ImageRepository imageRepository;
+
+    public void onOrderCreated(Order order, List<OrderItem> orderItems) {
+        Map<Long, String> imageByProduct = getFirstImages(orderItems.stream()
+                .map(orderItem -> orderItem.getProductItem().getProduct().getId())
+                .toList());
+        orderSummaryRepository.save(build(order, orderItems, imageByProduct));
+    }
+
+    public void onStatusChanged(Order order) {
+        if (orderSummaryRepository.updateStatus(order.getId(), order.getStatus()) == 0) {
+            rebuild(List.of(order));
+        }
+    }
+
+    public void onStatusChanged(Collection<Long> orderIds, OrderStatus status) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        if (orderSummaryRepository.updateStatusIn(orderIds, status) < orderIds.size()) {
+            // Có đơn chưa có bản tóm tắt: dựng lại những đơn đó
+            Set<Long> existing = new HashSet<>();
+            orderSummaryRepository.findAllById(orderIds).forEach(summary -> existing.add(summary.getOrderId()));
+            List<Order> missing = orderRepository.findAllById(orderIds.stream().filter(id -> !existing.contains(id)).toList());
+            if (!missing.isEmpty()) {
+                rebuild(missing);
+            }
+        }
+    }
+
+    // Ảnh đầu tiên của mỗi sản phẩm, một truy vấn cho cả danh sách
+    public Map<Long, String> getFirstImages(Collection<Long> productIds) {
+        Map<Long, String> imageByProduct = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return imageByProduct;
+        }
+        for (Object[] row : imageRepository.findUrlsByProductIdIn(new HashSet<>(productIds))) {
+            imageByProduct.putIfAbsent((Long) row[1], (String) row[2]);
+        }
+        return imageByProduct;
+    }
+
+    public static double totalOf(List<OrderItem> orderItems) {
+        double total = 0;
+        for (OrderItem orderItem : orderItems) {
+            total += (orderItem.getPrice() - orderItem.getDiscount()) * orderItem.getAmount();
+        }
+        return total + Constant.SHIPPING_FEE;
+    }
+
+    public OrderSummaryResponse toResponse(OrderSummary summary) {
+        return OrderSummaryResponse.builder()
+                .orderId(summary.getOrderId())
+                .userId(summary.getUserId())
+                .userEmail(summary.getUserEmail())
+                .receiverName(summary.getReceiverName())
+                .receiverPhone(summary.getReceiverPhone())
+                .location(summary.getLocation())
+                .total(summary.getTotal())
+                .itemCount(summary.getItemCount())
+                .orderStatus(summary.getStatus().toString())
+                .paymentMethod(summary.getPaymentMethod() == null ? null : summary.getPaymentMethod().toString())
+                .orderDate(summary.getOrderDate())
+                .firstItemImage(summary.getFirstItemImage())
+                .itemPreview(summary.getItemPreview())
+                .build();
+    }
+
+    // Tạo bản tóm tắt cho các đơn có từ trước khi có bảng order_summary
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Pageable pageable = PageRequest.of(0, BACKFILL_CHUNK_SIZE);
+        long lastId = 0;
+        int backfilled = 0;
+        List<Order> orders;
+        while (!(orders = orderSummaryRepository.findOrdersWithoutSummary(lastId, pageable)).isEmpty()) {
+            rebuild(orders);
+            lastId = orders.get(orders.size() - 1).getId();
+            backfilled += orders.size();
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled {} order summaries", backfilled);
+        }
+    }
+
+    private void rebuild(List<Order> orders) {
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        for (OrderItem orderItem : orderItemRepository.findByOrderIdIn(orders.stream().map(Order::getId).toList())) {
+            itemsByOrder.computeIfAbsent(orderItem.getOrder().getId(), id -> new ArrayList<>()).add(orderItem);
+        }
+        Map<Long, String> imageByProduct = getFirstImages(itemsByOrder.values().stream()
+                .flatMap(List::stream)
+                .map(orderItem -> orderItem.getProductItem().getProduct().getId())
+                .toList());
+        List<OrderSummary> summaries = new ArrayList<>();
+        for (Order order : orders) {
+            summaries.add(build(order, itemsByOrder.getOrDefault(order.getId(), List.of()), imageByProduct));
+        }
+        orderSummaryRepository.saveAll(summaries);
+    }
+
+    private OrderSummary build(Order order, List<OrderItem> orderItems, Map<Long, String> imageByProduct) {
+        User user = order.getShippingAddress().getUser();
+        int itemCount = 0;
+        StringBuilder preview = new StringBuilder();
+        for (OrderItem orderItem : orderItems) {
+            itemCount += orderItem.getAmount();
+            if (!preview.isEmpty()) {
+                preview.append(", ");
+            }
+            preview.append(orderItem.getProductItem().getProduct().getName())
+                    .append(" (").append(orderItem.getProductItem().getType().getName()).append(")")
+                    .append(" x").append(orderItem.getAmount());
+        }
+        String itemPreview = preview.length() > PREVIEW_MAX_LENGTH
+                ? preview.substring(0, PREVIEW_MAX_LENGTH - 3) + "..."
+                : preview.toString();
+        String firstItemImage = orderItems.isEmpty()
+                ? ""
+                : imageByProduct.getOrDefault(orderItems.get(0).getProductItem().getProduct().getId(), "");
+
+        return OrderSummary.builder()
+                .orderId(order.getId())
+                .userId(user == null ? null : user.getId())
+                .userEmail(user == null ? null : user.getEmail())
+                .receiverName(order.getShippingAddress().getReceiverName())
+                .receiverPhone(order.getShippingAddress().getReceiverPhone())
+                .location(order.getShippingAddress().getLocation())
+                .total(totalOf(orderItems))
+                .itemCount(itemCount)
+                .status(order.getStatus())
+                .paymentMethod(order.getPaymentMethod())
+                .orderDate(order.getOrderDate())
+                .firstItemImage(firstItemImage)
+                .itemPreview(itemPreview)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.haui.coffee_shop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.model.OutboxEvent;
+import com.haui.coffee_shop.payload.response.OutboxStatsResponse;
+import com.haui.coffee_shop.repository.OutboxEventRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polls outbox_event in id order and hands each event to every {@link OutboxSubscriber} that supports it.
+ * An event is marked processed only when all of them succeeded; otherwise it is retried with an
+ * exponential backoff (at-least-once). Lag is the age of the oldest pending event.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    private static final int MAX_BACKOFF_SECONDS = 600;
+    private static final int RETENTION_DAYS = 7;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final int batchSize;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile int lastBatchSize;
+    private volatile long lastBatchMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSubscriber> subscribers,
+                       @Value("${outbox.batch-size:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:1000}")
+    public void relay() {
+        long start = System.currentTimeMillis();
+        List<OutboxEvent> events = outboxEventRepository.findPending(new Date(), PageRequest.of(0, batchSize));
+        List<Long> done = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                for (OutboxSubscriber subscriber : subscribers) {
+                    if (subscriber.supports(event.getEventType())) {
+                        subscriber.handle(event);
+                    }
+                }
+                done.add(event.getId());
+            } catch (RuntimeException e) {
+                failed.increment();
+                long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(event.getAttempts(), 10));
+                String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+                outboxEventRepository.markFailed(event.getId(),
+                        new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(backoffSeconds)),
+                        error.length() > 500 ? error.substring(0, 500) : error);
+                log.warn("Outbox event {} ({}) failed, attempt {}", event.getId(), event.getEventType(), event.getAttempts() + 1, e);
+            }
+        }
+        if (!done.isEmpty()) {
+            outboxEventRepository.markProcessed(done, new Date());
+            processed.add(done.size());
+        }
+        lastBatchSize = events.size();
+        lastBatchMillis = System.currentTimeMillis() - start;
+    }
+
+    @Scheduled(cron = "0 0 4 * * *")
+    public void purgeProcessed() {
+        Date before = Date.from(LocalDate.now().minusDays(RETENTION_DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        int deleted = outboxEventRepository.deleteProcessedBefore(before);
+        log.info("Purged {} processed outbox events", deleted);
+    }
+
+    public OutboxStatsResponse getStats() {
+        Date oldestPending = outboxEventRepository.findOldestPendingCreatedAt();
+        return OutboxStatsResponse.builder()
+                .pending(outboxEventRepository.countPending())
+                .lagMillis(oldestPending == null ? 0 : System.currentTimeMillis() - oldestPending.getTime())
+                .processed(processed.sum())
+                .failed(failed.sum())
+                .lastBatchSize(lastBatchSize)
+                .lastBatchMillis(lastBatchMillis)
+                .subscribers(subscribers.size())
+                .build();
+    }
+}
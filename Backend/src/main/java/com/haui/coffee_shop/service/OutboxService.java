@@ -0,0 +1,29 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.common.enums.OutboxEventType;
+import com.haui.coffee_shop.model.OutboxEvent;
+import com.haui.coffee_shop.repository.OutboxEventRepository;
+
+import java.util.Date;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+
+    // Tham gia transaction của nghiệp vụ đang chạy: thay đổi rollback thì sự kiện cũng không được ghi
+    @Transactional
+    public void publish(OutboxEventType eventType, long aggregateId, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(eventType)
+                .aggregateId(aggregateId)
+                .payload(GsonUtil.getInstance().toJson(payload))
+                .createdAt(new Date())
+                .build());
+    }
+}
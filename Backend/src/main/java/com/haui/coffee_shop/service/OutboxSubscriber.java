@@ -0,0 +1,14 @@
+package com.haui.coffee_shop.service;
+
+import com.haui.coffee_shop.common.enums.OutboxEventType;
+import com.haui.coffee_shop.model.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events. Delivery is at-least-once: an event is retried until every
+ * subscriber that supports it has returned without throwing, so handlers must be idempotent.
+ */
+public interface OutboxSubscriber {
+    boolean supports(OutboxEventType eventType);
+
+    void handle(OutboxEvent event);
+}
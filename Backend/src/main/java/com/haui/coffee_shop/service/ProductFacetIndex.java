@@ -0,0 +1,309 @@
+package com.haui.coffee_shop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.event.ProductChangedEvent;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductSummary;
+import com.haui.coffee_shop.payload.request.ProductFilterRequest;
+import com.haui.coffee_shop.payload.response.FacetValueResponse;
+import com.haui.coffee_shop.payload.response.ProductListView;
+import com.haui.coffee_shop.repository.ProductRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet engine over the active products. Every product gets an ordinal and every facet value keeps a
+ * {@link BitSet} of the ordinals that carry it, so a filter is a handful of word-wise OR/AND over
+ * catalog/64 longs. Counts are disjunctive: the counts of a facet ignore the selection made in that
+ * same facet, so the shopper can still see the alternatives.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String ORIGIN = "origin";
+    public static final String BEAN_TYPE = "beanType";
+    public static final String ROAD_LEVEL = "roadLevel";
+    public static final String CAFE_FORM = "cafeForm";
+    public static final String PRICE = "price";
+
+    private static final List<String> FACETS = List.of(CATEGORY, BRAND, ORIGIN, BEAN_TYPE, ROAD_LEVEL, CAFE_FORM, PRICE);
+
+    // Khoảng giá theo giá thấp nhất còn hàng của sản phẩm (VND), to = 0 là không giới hạn trên
+    private static final List<PriceBucket> PRICE_BUCKETS = List.of(
+            new PriceBucket("0-100000", "Dưới 100.000đ", 0, 100000),
+            new PriceBucket("100000-200000", "100.000đ - 200.000đ", 100000, 200000),
+            new PriceBucket("200000-500000", "200.000đ - 500.000đ", 200000, 500000),
+            new PriceBucket("500000-", "Trên 500.000đ", 500000, 0));
+
+    private final ProductRepository productRepository;
+    private final ProductSummaryService productSummaryService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Long> productIds = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet alive = new BitSet();
+    private double[] minPrices = new double[64];
+    // facet -> giá trị -> tập ordinal
+    private final Map<String, Map<String, BitSet>> bitsets = new HashMap<>();
+    private final Map<String, Map<String, String>> labels = new HashMap<>();
+    // Giá trị facet hiện tại của từng sản phẩm, dùng để gỡ bit khi sản phẩm thay đổi
+    private final Map<Long, Map<String, String>> valuesByProduct = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 */10 * * * *")
+    public void rebuild() {
+        List<ProductListView> products = productRepository.findActiveListViews().stream()
+                .sorted(Comparator.comparingLong(ProductListView::getId))
+                .toList();
+        Map<Long, ProductSummary> summaries = productSummaryService.getSummaries(products.stream().map(ProductListView::getId).toList());
+
+        lock.writeLock().lock();
+        try {
+            productIds.clear();
+            ordinals.clear();
+            alive.clear();
+            minPrices = new double[Math.max(64, products.size())];
+            bitsets.clear();
+            labels.clear();
+            valuesByProduct.clear();
+            for (ProductListView product : products) {
+                indexProduct(product, summaries.get(product.getId()).getMinPrice());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built facet index for {} products", products.size());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Optional<Product> product = productRepository.findById(event.getProductId());
+        boolean active = product.isPresent() && product.get().getStatus() == Status.ACTIVE;
+        double minPrice = active ? productSummaryService.getSummaries(List.of(event.getProductId())).get(event.getProductId()).getMinPrice() : 0;
+
+        lock.writeLock().lock();
+        try {
+            removeProduct(event.getProductId());
+            if (active) {
+                indexProduct(new ProductListView(product.get()), minPrice);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult query(ProductFilterRequest request, int page, int size) {
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put(CATEGORY, request.getCategoryId());
+        selected.put(BRAND, request.getBrandId());
+        selected.put(ORIGIN, request.getOrigin());
+        selected.put(BEAN_TYPE, request.getBeanType());
+        selected.put(ROAD_LEVEL, request.getRoadLevel());
+        selected.put(CAFE_FORM, request.getCafeForm());
+        selected.put(PRICE, request.getPrice());
+
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) alive.clone();
+            if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+                base.and(priceRange(request.getMinPrice(), request.getMaxPrice()));
+            }
+
+            // Mỗi facet có chọn giá trị tạo một mask = OR các bitset của giá trị đã chọn
+            Map<String, BitSet> masks = new HashMap<>();
+            for (String facet : FACETS) {
+                List<String> values = selected.get(facet);
+                if (values == null || values.isEmpty()) {
+                    continue;
+                }
+                BitSet mask = new BitSet();
+                Map<String, BitSet> facetBitsets = bitsets.getOrDefault(facet, Map.of());
+                for (String value : values) {
+                    BitSet bitset = facetBitsets.get(value.trim());
+                    if (bitset != null) {
+                        mask.or(bitset);
+                    }
+                }
+                masks.put(facet, mask);
+            }
+
+            BitSet matched = (BitSet) base.clone();
+            for (BitSet mask : masks.values()) {
+                matched.and(mask);
+            }
+
+            Map<String, List<FacetValueResponse>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet others = (BitSet) base.clone();
+                for (Map.Entry<String, BitSet> mask : masks.entrySet()) {
+                    if (!mask.getKey().equals(facet)) {
+                        others.and(mask.getValue());
+                    }
+                }
+                facets.put(facet, countFacet(facet, others, selected.get(facet)));
+            }
+
+            // Sắp theo ordinal giảm dần, tức sản phẩm mới nhất trước
+            // Tính bằng long để page lớn không tràn số; vượt quá số sản phẩm khớp thì trang rỗng
+            List<Long> pageIds = new ArrayList<>();
+            int total = matched.cardinality();
+            int skip = (int) Math.min((long) page * size, total);
+            for (int ordinal = skip == total ? -1 : matched.previousSetBit(matched.length() - 1);
+                 ordinal >= 0 && pageIds.size() < size;
+                 ordinal = matched.previousSetBit(ordinal - 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    pageIds.add(productIds.get(ordinal));
+                }
+            }
+            return new FacetResult(pageIds, total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<FacetValueResponse> countFacet(String facet, BitSet others, List<String> selectedValues) {
+        Map<String, BitSet> facetBitsets = bitsets.getOrDefault(facet, Map.of());
+        Map<String, String> facetLabels = labels.getOrDefault(facet, Map.of());
+        Set<String> selected = new HashSet<>();
+        if (selectedValues != null) {
+            selectedValues.forEach(value -> selected.add(value.trim()));
+        }
+
+        List<FacetValueResponse> counts = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : facetBitsets.entrySet()) {
+            BitSet intersection = (BitSet) entry.getValue().clone();
+            intersection.and(others);
+            int count = intersection.cardinality();
+            if (count == 0 && !selected.contains(entry.getKey())) {
+                continue;
+            }
+            counts.add(FacetValueResponse.builder()
+                    .value(entry.getKey())
+                    .label(facetLabels.getOrDefault(entry.getKey(), entry.getKey()))
+                    .count(count)
+                    .selected(selected.contains(entry.getKey()))
+                    .build());
+        }
+        if (PRICE.equals(facet)) {
+            List<String> order = PRICE_BUCKETS.stream().map(PriceBucket::getKey).toList();
+            counts.sort(Comparator.comparingInt(count -> order.indexOf(count.getValue())));
+        } else {
+            counts.sort(Comparator.comparingInt(FacetValueResponse::getCount).reversed()
+                    .thenComparing(FacetValueResponse::getLabel));
+        }
+        return counts;
+    }
+
+    private BitSet priceRange(Double from, Double to) {
+        BitSet range = new BitSet();
+        for (int ordinal = alive.nextSetBit(0); ordinal >= 0; ordinal = alive.nextSetBit(ordinal + 1)) {
+            double price = minPrices[ordinal];
+            if (price > 0 && (from == null || price >= from) && (to == null || price <= to)) {
+                range.set(ordinal);
+            }
+        }
+        return range;
+    }
+
+    private void indexProduct(ProductListView product, double minPrice) {
+        Integer ordinal = ordinals.get(product.getId());
+        if (ordinal == null) {
+            ordinal = productIds.size();
+            productIds.add(product.getId());
+            ordinals.put(product.getId(), ordinal);
+            if (ordinal >= minPrices.length) {
+                minPrices = Arrays.copyOf(minPrices, minPrices.length * 2);
+            }
+        }
+
+        Map<String, String> values = new HashMap<>();
+        if (product.getCategory() != null) {
+            addValue(values, CATEGORY, String.valueOf(product.getCategory().getId()), product.getCategory().getName());
+        }
+        if (product.getBrand() != null) {
+            addValue(values, BRAND, String.valueOf(product.getBrand().getId()), product.getBrand().getName());
+        }
+        addValue(values, ORIGIN, product.getOrigin(), product.getOrigin());
+        addValue(values, BEAN_TYPE, product.getBeanType(), product.getBeanType());
+        addValue(values, ROAD_LEVEL, product.getRoadLevel(), product.getRoadLevel());
+        addValue(values, CAFE_FORM, product.getCafeForm(), product.getCafeForm());
+        for (PriceBucket bucket : PRICE_BUCKETS) {
+            if (bucket.contains(minPrice)) {
+                addValue(values, PRICE, bucket.getKey(), bucket.getLabel());
+            }
+        }
+
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            bitsets.computeIfAbsent(entry.getKey(), key -> new HashMap<>())
+                    .computeIfAbsent(entry.getValue(), key -> new BitSet())
+                    .set(ordinal);
+        }
+        valuesByProduct.put(product.getId(), values);
+        minPrices[ordinal] = minPrice;
+        alive.set(ordinal);
+    }
+
+    // Ordinal được giữ lại để tái sử dụng nếu sản phẩm active lại, lần rebuild sau sẽ dồn lại
+    private void removeProduct(long productId) {
+        Integer ordinal = ordinals.get(productId);
+        Map<String, String> values = valuesByProduct.remove(productId);
+        if (ordinal == null || values == null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            Map<String, BitSet> facetBitsets = bitsets.get(entry.getKey());
+            BitSet bitset = facetBitsets.get(entry.getValue());
+            bitset.clear(ordinal);
+            if (bitset.isEmpty()) {
+                facetBitsets.remove(entry.getValue());
+            }
+        }
+        minPrices[ordinal] = 0;
+        alive.clear(ordinal);
+    }
+
+    private void addValue(Map<String, String> values, String facet, String value, String label) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        values.put(facet, value.trim());
+        labels.computeIfAbsent(facet, key -> new HashMap<>()).put(value.trim(), label == null ? value.trim() : label.trim());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetResult {
+        private final List<Long> productIds;
+        private final int total;
+        private final Map<String, List<FacetValueResponse>> facets;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PriceBucket {
+        private final String key;
+        private final String label;
+        private final double from;
+        private final double to;
+
+        boolean contains(double price) {
+            return price > 0 && price >= from && (to == 0 || price < to);
+        }
+    }
+}
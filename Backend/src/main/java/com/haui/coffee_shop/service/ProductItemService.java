@@ -2,11 +2,13 @@ package com.haui.coffee_shop.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.haui.coffee_shop.common.Constant;
 import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.event.ProductChangedEvent;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.Product;
 import com.haui.coffee_shop.model.ProductItem;
@@ -18,6 +20,7 @@ import com.haui.coffee_shop.repository.ProductItemRepository;
 import com.haui.coffee_shop.repository.ProductRepository;
 import com.haui.coffee_shop.repository.TypeProductRepository;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +33,8 @@ public class ProductItemService {
     public final TypeProductRepository typeProductRepository;
     public final MessageBuilder messageBuilder;
     private  final  CartService cartService;
+    private final ProductSummaryService productSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RespMessage addProductItem(ProductItemRequest request) {
         if (request.getPrice() < 0) {
@@ -68,16 +73,17 @@ public class ProductItemService {
             log.error("ProductItem can not be added", e);
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e}, "ProductItem can not be added");
         }
+        productSummaryService.refreshPriceRange(List.of(productItem.getProduct().getId()));
+        eventPublisher.publishEvent(new ProductChangedEvent(productItem.getProduct()));
         return messageBuilder.buildSuccessMessage(productItem);
     }
 
 
     public RespMessage getProductItem(Long productId) {
         List<ProductItem> productItems = productItemRepository.findByProductId(productId);
-        List<ProductItemResponse> activeProductItemResponses = productItems.stream()
+        List<ProductItemResponse> activeProductItemResponses = cartService.toProductItemResponses(productItems.stream()
                 .filter(productItem -> productItem.getStatus() == Status.ACTIVE)
-                .map(cartService::toProductItemResponse)
-                .toList();
+                .toList());
         return messageBuilder.buildSuccessMessage(activeProductItemResponses);
     }
 
@@ -111,6 +117,8 @@ public class ProductItemService {
             throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"ProductItem"}, "ProductItem not found");
         }
         ProductItem productItem = productItemOptional.get();
+        Product oldProduct = productItem.getProduct();
+        long oldProductId = oldProduct.getId();
         productItem.setPrice(request.getPrice());
         productItem.setStock(request.getStock());
         productItem.setDiscount(request.getDiscount());
@@ -122,6 +130,9 @@ public class ProductItemService {
             log.error("ProductItem can not be updated", e);
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e}, "ProductItem can not be updated");
         }
+        productSummaryService.refreshPriceRange(new HashSet<>(List.of(oldProductId, productItem.getProduct().getId())));
+        eventPublisher.publishEvent(new ProductChangedEvent(oldProduct));
+        eventPublisher.publishEvent(new ProductChangedEvent(productItem.getProduct()));
         return messageBuilder.buildSuccessMessage(productItem);
     }
 
@@ -138,6 +149,15 @@ public class ProductItemService {
             log.error("ProductItem can not be deleted", e);
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e}, "ProductItem can not be deleted");
         }
+        productSummaryService.refreshPriceRange(List.of(productItemOptional.get().getProduct().getId()));
+        eventPublisher.publishEvent(new ProductChangedEvent(productItemOptional.get().getProduct()));
         return messageBuilder.buildSuccessMessage(productItemOptional.get());
     }
+
+    public RespMessage updateFlashSale(long id, boolean flashSale) {
+        if (productItemRepository.updateFlashSale(id, flashSale) == 0) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"ProductItem"}, "ProductItem not found");
+        }
+        return messageBuilder.buildSuccessMessage(flashSale);
+    }
 }
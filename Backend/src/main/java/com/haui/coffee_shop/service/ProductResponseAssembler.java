@@ -0,0 +1,123 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.model.Image;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductSummary;
+import com.haui.coffee_shop.payload.response.ProductListView;
+import com.haui.coffee_shop.payload.response.ProductResponse;
+import com.haui.coffee_shop.repository.ImageRepository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link ProductResponse} for a whole list of products (or list projections) at once: image ids and
+ * urls are loaded with one projection query keyed by product id (the owning Product is not re-read),
+ * rating, total sold and price range come from the product_summary rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductResponseAssembler {
+    private final ImageRepository imageRepository;
+    private final ProductSummaryService productSummaryService;
+
+    public ProductResponse toProductResponse(Product product) {
+        return toProductResponses(List.of(product)).get(0);
+    }
+
+    // Giữ nguyên thứ tự của danh sách đầu vào
+    public List<ProductResponse> toProductResponses(List<Product> products) {
+        return fill(products.stream().map(this::toBaseResponse).toList());
+    }
+
+    // Dùng cho trang danh sách: description và article để null
+    public List<ProductResponse> toListResponses(List<ProductListView> views) {
+        return fill(views.stream().map(this::toBaseResponse).toList());
+    }
+
+    private List<ProductResponse> fill(List<ProductResponse> productResponses) {
+        if (productResponses.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            Set<Long> productIds = productResponses.stream().map(ProductResponse::getId).collect(Collectors.toSet());
+
+            Map<Long, List<Image>> imagesByProduct = new HashMap<>();
+            for (Object[] row : imageRepository.findUrlsByProductIdIn(productIds)) {
+                imagesByProduct.computeIfAbsent((Long) row[1], id -> new ArrayList<>())
+                        .add(new Image((Long) row[0], (String) row[2], null));
+            }
+
+            Map<Long, ProductSummary> summaryByProduct = productSummaryService.getSummaries(productIds);
+
+            for (ProductResponse productResponse : productResponses) {
+                productResponse.setImages(imagesByProduct.getOrDefault(productResponse.getId(), new ArrayList<>()));
+
+                ProductSummary summary = summaryByProduct.get(productResponse.getId());
+                productResponse.setRating(summary.getRating());
+                productResponse.setTotalReview(summary.getTotalReview());
+                productResponse.setTotalSold(summary.getTotalSold());
+                productResponse.setMinPrice(summary.getMinPrice());
+                productResponse.setMaxPrice(summary.getMaxPrice());
+            }
+            return new ArrayList<>(productResponses);
+        } catch (Exception e) {
+            throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e.getMessage()}, "Error when get product response");
+        }
+    }
+
+    public Map<Long, ProductResponse> toProductResponseMap(Collection<Product> products) {
+        Map<Long, Product> distinctProducts = new LinkedHashMap<>();
+        for (Product product : products) {
+            distinctProducts.putIfAbsent(product.getId(), product);
+        }
+        Map<Long, ProductResponse> productResponseMap = new HashMap<>();
+        for (ProductResponse productResponse : toProductResponses(new ArrayList<>(distinctProducts.values()))) {
+            productResponseMap.put(productResponse.getId(), productResponse);
+        }
+        return productResponseMap;
+    }
+
+    private ProductResponse toBaseResponse(Product product) {
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setId(product.getId());
+        productResponse.setName(product.getName());
+        productResponse.setDescription(product.getDescription());
+        productResponse.setCategory(product.getCategory());
+        productResponse.setBrand(product.getBrand());
+        productResponse.setNetWeight(product.getNetWeight());
+        productResponse.setBeanType(product.getBeanType());
+        productResponse.setOrigin(product.getOrigin());
+        productResponse.setRoadLevel(product.getRoadLevel());
+        productResponse.setFlavoNotes(product.getFlavoNotes());
+        productResponse.setCaffeineContents(product.getCaffeineContents());
+        productResponse.setCafeForm(product.getCafeForm());
+        productResponse.setArticleTitle(product.getArticleTitle());
+        productResponse.setArticle(product.getArticle());
+        productResponse.setCreatedAt(product.getCreatedAt());
+        return productResponse;
+    }
+
+    private ProductResponse toBaseResponse(ProductListView view) {
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setId(view.getId());
+        productResponse.setName(view.getName());
+        productResponse.setCategory(view.getCategory());
+        productResponse.setBrand(view.getBrand());
+        productResponse.setNetWeight(view.getNetWeight());
+        productResponse.setBeanType(view.getBeanType());
+        productResponse.setOrigin(view.getOrigin());
+        productResponse.setRoadLevel(view.getRoadLevel());
+        productResponse.setFlavoNotes(view.getFlavoNotes());
+        productResponse.setCaffeineContents(view.getCaffeineContents());
+        productResponse.setCafeForm(view.getCafeForm());
+        productResponse.setArticleTitle(view.getArticleTitle());
+        productResponse.setCreatedAt(view.getCreatedAt());
+        return productResponse;
+    }
+}
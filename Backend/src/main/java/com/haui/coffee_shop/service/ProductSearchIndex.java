@@ -0,0 +1,197 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.TextFolder;
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.event.ProductChangedEvent;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.repository.ProductRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the active products, ranked with BM25.
+ * Terms are accent folded, each field contributes its weight to the term frequency, every query
+ * term must match and the last one is also matched as a prefix (search-as-you-type).
+ * Kept current from {@link ProductChangedEvent}; a periodic full rebuild picks up brand renames.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int BRAND_WEIGHT = 3;
+    private static final int ATTRIBUTE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (productId -> trọng số xuất hiện)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 * * * *")
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            for (Product product : products) {
+                if (product.getStatus() == Status.ACTIVE) {
+                    addDocument(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for search", documents.size());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Optional<Product> product = productRepository.findById(event.getProductId());
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.getProductId());
+            if (product.isPresent() && product.get().getStatus() == Status.ACTIVE) {
+                addDocument(product.get());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Trả về id sản phẩm theo điểm giảm dần, limit <= 0 là không giới hạn
+    public List<Long> search(String query, int limit) {
+        List<String> terms = TextFolder.tokenize(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(terms.get(i), prefix, documentCount, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            int size = limit > 0 ? Math.min(limit, ranked.size()) : ranked.size();
+            List<Long> productIds = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                productIds.add(ranked.get(i).getKey());
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Với từ cuối (prefix) mỗi sản phẩm lấy điểm cao nhất trong các term khớp tiền tố
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, int documentCount, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<String, Map<Long, Integer>> matched = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : (postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of());
+        for (Map<Long, Integer> posting : matched.values()) {
+            int documentFrequency = posting.size();
+            double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                int frequency = entry.getValue();
+                int length = documentLengths.get(entry.getKey());
+                double score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                scores.merge(entry.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, product.getName(), NAME_WEIGHT);
+        addField(frequencies, product.getBrand() == null ? null : product.getBrand().getName(), BRAND_WEIGHT);
+        addField(frequencies, product.getOrigin(), ATTRIBUTE_WEIGHT);
+        addField(frequencies, product.getBeanType(), ATTRIBUTE_WEIGHT);
+        addField(frequencies, product.getFlavoNotes(), ATTRIBUTE_WEIGHT);
+        addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(product.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(product.getId(), frequencies);
+        documentLengths.put(product.getId(), length);
+        totalLength += length;
+    }
+
+    private void removeDocument(long productId) {
+        Map<String, Integer> frequencies = documents.remove(productId);
+        if (frequencies == null) {
+            return;
+        }
+        for (String term : frequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(productId);
+    }
+
+    private void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : TextFolder.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -3,78 +3,88 @@ package com.haui.coffee_shop.service;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.CursorCodec;
+import com.haui.coffee_shop.common.enums.ProductSort;
 import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.event.ProductChangedEvent;
 import com.haui.coffee_shop.exception.CoffeeShopException;
 import com.haui.coffee_shop.model.*;
+import com.haui.coffee_shop.payload.request.ProductFilterRequest;
 import com.haui.coffee_shop.payload.request.ProductRequest;
+import com.haui.coffee_shop.payload.response.ProductFilterResponse;
+import com.haui.coffee_shop.payload.response.ProductListView;
+import com.haui.coffee_shop.payload.response.ProductPageResponse;
 import com.haui.coffee_shop.payload.response.ProductResponse;
 import com.haui.coffee_shop.payload.response.RespMessage;
-import com.haui.coffee_shop.payload.response.ReviewResponse;
 import com.haui.coffee_shop.repository.*;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Giá trị giữ chỗ cho :ids khi không lọc theo từ khóa, IN () rỗng không hợp lệ
+    private static final List<Long> NO_IDS = List.of(0L);
+    private static final int DEFAULT_SUGGEST_SIZE = 8;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
     private final TypeProductRepository typeProductRepository;
-    private final ReviewRepository reviewRepository;
     private final MessageBuilder messageBuilder;
     private final CloudinaryService cloudinaryService;
     private final ImageRepository imageRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final ProductResponseAssembler productResponseAssembler;
+    private final ProductSummaryService productSummaryService;
+    private final CatalogCacheService catalogCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final BestSellingRankingService bestSellingRankingService;
+
     public RespMessage getAllProduct() {
-        List<Product> products = productRepository.findAll();
-        List<Product> activeProducts = products.stream().filter(product -> product.getStatus() == Status.ACTIVE).toList();
-        List<ProductResponse> productResponseList = new ArrayList<>();
-        for (Product product : activeProducts) {
-            List<Image> images = imageRepository.findByProduct(product);
-            ProductResponse productResponse = getProductResponse(product);
-            productResponse.setImages(images);
-            productResponseList.add(productResponse);
-        }
-        return messageBuilder.buildSuccessMessage(productResponseList);
+        return catalogCacheService.get(CatalogCacheService.ALL_PRODUCTS_KEY, () -> {
+            List<ProductListView> products = productRepository.findActiveListViews();
+            List<ProductResponse> productResponseList = productResponseAssembler.toListResponses(products);
+            return messageBuilder.buildSuccessMessage(productResponseList);
+        });
     }
 
     public RespMessage getProductById(Long id) {
-        Optional<Product> productOp = productRepository.findById(id);
+        return catalogCacheService.get(CatalogCacheService.productKey(id), () -> {
+            Optional<Product> productOp = productRepository.findById(id);
 
-        if (productOp.isPresent()) {
-            Product product = productOp.get();
-            if (product.getStatus() == Status.INACTIVE) {
-                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"product"}, "Product not active");
+            if (productOp.isPresent()) {
+                Product product = productOp.get();
+                if (product.getStatus() == Status.INACTIVE) {
+                    throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"product"}, "Product not active");
+                }
+                ProductResponse productResponse = getProductResponse(product);
+                return messageBuilder.buildSuccessMessage(productResponse);
+            } else {
+                throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"product"}, "Product not found");
             }
-            ProductResponse productResponse = getProductResponse(product);
-            List<Image> images = imageRepository.findByProduct(product);
-            productResponse.setImages(images);
-            return messageBuilder.buildSuccessMessage(productResponse);
-        } else {
-            throw new CoffeeShopException(Constant.FIELD_NOT_FOUND, new Object[]{"product"}, "Product not found");
-        }
+        });
     }
     public RespMessage getProductsByCategoryId(Long categoryId) {
         try {
-            List<Product> tempProducts = productRepository.findByCategoryId(categoryId);
-            List<Product> products = tempProducts.stream().filter(product -> product.getStatus() == Status.ACTIVE).toList();
-            List<ProductResponse> productResponseList = new ArrayList<>();
-            for (Product product : products) {
-                ProductResponse productResponse = getProductResponse(product);
-                productResponseList.add(productResponse);
-            }
-            return messageBuilder.buildSuccessMessage(productResponseList);
+            return catalogCacheService.get(CatalogCacheService.categoryKey(categoryId), () -> {
+                List<ProductListView> products = productRepository.findActiveListViewsByCategoryId(categoryId);
+                List<ProductResponse> productResponseList = productResponseAssembler.toListResponses(products);
+                return messageBuilder.buildSuccessMessage(productResponseList);
+            });
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, null , null);
         }
@@ -82,14 +92,11 @@ public class ProductService {
     
     public RespMessage getProductsByBrandId(Long brandId) {
         try {
-            List<Product> tempProducts = productRepository.findByBrandId(brandId);
-            List<Product> products = tempProducts.stream().filter(product -> product.getStatus() == Status.ACTIVE).toList();
-            List<ProductResponse> productResponseList = new ArrayList<>();
-            for (Product product : products) {
-                ProductResponse productResponse = getProductResponse(product);
-                productResponseList.add(productResponse);
-            }
-            return messageBuilder.buildSuccessMessage(productResponseList);
+            return catalogCacheService.get(CatalogCacheService.brandKey(brandId), () -> {
+                List<ProductListView> products = productRepository.findActiveListViewsByBrandId(brandId);
+                List<ProductResponse> productResponseList = productResponseAssembler.toListResponses(products);
+                return messageBuilder.buildSuccessMessage(productResponseList);
+            });
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, null , null);
         }
@@ -99,17 +106,11 @@ public class ProductService {
     // Tìm kiếm sản phẩm theo từ khóa và trả về RespMessage
     public RespMessage searchProductsByKeyword(String keyword) {
         try {
-            List<Product> products = productRepository
-                    .searchByKeyword(keyword)
-                    .stream().filter(product -> product.getStatus() == Status.ACTIVE).toList();
+            List<ProductListView> products = findActiveListViewsInOrder(productSearchIndex.search(keyword, 0));
             if (products.isEmpty()) {
                 return messageBuilder.buildFailureMessage(Constant.FIELD_NOT_FOUND, null, null);
             }
-            List<ProductResponse> productResponseList = new ArrayList<>();
-            for (Product product : products) {
-                ProductResponse productResponse = getProductResponse(product);
-                productResponseList.add(productResponse);
-            }
+            List<ProductResponse> productResponseList = productResponseAssembler.toListResponses(products);
             return messageBuilder.buildSuccessMessage(productResponseList);
         } catch (Exception e) {
             // Xây dựng phản hồi thất bại khi có lỗi
@@ -118,6 +119,108 @@ public class ProductService {
     }
 
 
+    // Phân trang keyset theo (khóa sắp xếp, id): cursor chứa khóa của phần tử cuối trang trước
+    public RespMessage getProductPage(String sortValue, String cursor, Integer size,
+                                      Long categoryId, Long brandId, String keyword) {
+        ProductSort sort = ProductSort.fromValue(sortValue);
+        if (sort == null) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"sort"}, "Sort not valid");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"size"}, "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String searchKeyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+
+        Long lastId = null;
+        String lastKey = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            if (!sort.getValue().equals(parts[0])) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"cursor"}, "Cursor does not match sort");
+            }
+            lastKey = parts[1];
+            lastId = parseCursorPart(parts[2], Long::valueOf);
+        }
+
+        // Từ khóa đi qua chỉ mục tìm kiếm như searchProductsByKeyword, truy vấn chỉ còn lọc theo id
+        boolean byIds = searchKeyword != null;
+        List<Long> ids = byIds ? productSearchIndex.search(searchKeyword, 0) : NO_IDS;
+        if (byIds && ids.isEmpty()) {
+            return messageBuilder.buildSuccessMessage(ProductPageResponse.builder()
+                    .items(new ArrayList<>())
+                    .hasNext(false)
+                    .build());
+        }
+
+        // Lấy dư một phần tử để biết còn trang sau hay không
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ProductListView> products = switch (sort) {
+            case NEWEST -> productRepository.findPageNewest(categoryId, brandId, byIds, ids, lastId, pageable);
+            case PRICE -> productRepository.findPageByPrice(categoryId, brandId, byIds, ids,
+                    lastId == null ? null : parseCursorPart(lastKey, Double::valueOf), lastId, pageable);
+            case BEST_SELLING -> productRepository.findPageByTotalSold(categoryId, brandId, byIds, ids,
+                    lastId == null ? null : parseCursorPart(lastKey, Integer::valueOf), lastId, pageable);
+            case RATING -> productRepository.findPageByRating(categoryId, brandId, byIds, ids,
+                    lastId == null ? null : parseCursorPart(lastKey, Double::valueOf), lastId, pageable);
+        };
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductResponse> items = productResponseAssembler.toListResponses(hasNext ? products.subList(0, pageSize) : products);
+        String nextCursor = null;
+        if (hasNext) {
+            ProductResponse last = items.get(items.size() - 1);
+            Object key = switch (sort) {
+                case NEWEST -> "";
+                case PRICE -> last.getMinPrice();
+                case BEST_SELLING -> last.getTotalSold();
+                case RATING -> last.getRating();
+            };
+            nextCursor = CursorCodec.encode(sort.getValue(), key, last.getId());
+        }
+
+        return messageBuilder.buildSuccessMessage(ProductPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build());
+    }
+
+    // Gợi ý cho ô tìm kiếm, chỉ trả về loại, id và tên nên rất nhẹ
+    public RespMessage suggest(String keyword, Integer limit) {
+        int size = limit == null ? DEFAULT_SUGGEST_SIZE : Math.min(Math.max(limit, 1), ProductSuggestIndex.TOP_K);
+        return messageBuilder.buildSuccessMessage(productSuggestIndex.suggest(keyword, size));
+    }
+
+    public RespMessage filterProducts(ProductFilterRequest request) {
+        int page = request.getPage() == null ? 0 : request.getPage();
+        int size = request.getSize() == null ? DEFAULT_PAGE_SIZE : request.getSize();
+        if (page < 0) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"page"}, "Page must not be negative");
+        }
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"size"}, "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        ProductFacetIndex.FacetResult result = productFacetIndex.query(request, page, size);
+        List<ProductResponse> items = productResponseAssembler.toListResponses(findActiveListViewsInOrder(result.getProductIds()));
+        return messageBuilder.buildSuccessMessage(ProductFilterResponse.builder()
+                .items(items)
+                .total(result.getTotal())
+                .page(page)
+                .size(size)
+                .facets(result.getFacets())
+                .build());
+    }
+
+    private <T> T parseCursorPart(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"cursor"}, "Cursor not valid");
+        }
+    }
+
     public RespMessage addProduct(ProductRequest productRequest) {
         if (productRequest.getName() == null || productRequest.getName().isEmpty()) {
             throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[]{"name"}, "Product name must be not null");
@@ -153,9 +256,11 @@ public class ProductService {
         product.setArticle(productRequest.getArticle());
         try {
             productRepository.save(product);
+            productSummaryService.rebuild(List.of(product.getId()));
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e.getMessage()}, "Error when add product");
         }
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
         return messageBuilder.buildSuccessMessage(getProductResponse(product));
     }
 
@@ -203,6 +308,7 @@ public class ProductService {
         Product product = productOptional.get();
         product.setStatus(Status.INACTIVE);
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product));
         return messageBuilder.buildSuccessMessage(getProductResponse(product));
     }
 
@@ -213,6 +319,7 @@ public class ProductService {
         }
 
         Product product = productOptional.get();
+        ProductChangedEvent changedEvent = new ProductChangedEvent(product);
 
         if (request.getName() != null && !request.getName().isEmpty()) {
             product.setName(request.getName());
@@ -275,6 +382,7 @@ public class ProductService {
         }
 
         productRepository.save(product);
+        eventPublisher.publishEvent(changedEvent.addOwner(product.getCategory(), product.getBrand()));
         return messageBuilder.buildSuccessMessage(getProductResponse(product));
     }
 
@@ -298,6 +406,7 @@ public class ProductService {
             image.setUrl(url);
             image.setProduct(product);
             imageRepository.save(image);
+            eventPublisher.publishEvent(new ProductChangedEvent(product));
             return messageBuilder.buildSuccessMessage(getProductResponse(product));
         } catch (Exception e) {
             throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e.getMessage()}, "Error when upload image");
@@ -306,55 +415,7 @@ public class ProductService {
     }
 
     public ProductResponse getProductResponse(Product product) {
-        try {
-            ProductResponse productResponse = new ProductResponse();
-            productResponse.setId(product.getId());
-            productResponse.setName(product.getName());
-            productResponse.setDescription(product.getDescription());
-            productResponse.setCategory(product.getCategory());
-            productResponse.setBrand(product.getBrand());
-            productResponse.setNetWeight(product.getNetWeight());
-            productResponse.setBeanType(product.getBeanType());
-            productResponse.setOrigin(product.getOrigin());
-            productResponse.setRoadLevel(product.getRoadLevel());
-            productResponse.setFlavoNotes(product.getFlavoNotes());
-            productResponse.setCaffeineContents(product.getCaffeineContents());
-            productResponse.setCafeForm(product.getCafeForm());
-            productResponse.setArticleTitle(product.getArticleTitle());
-            productResponse.setArticle(product.getArticle());
-            productResponse.setCreatedAt(product.getCreatedAt());
-
-            List<Image> images = imageRepository.findByProduct(product);
-            productResponse.setImages(images);
-
-            List<Review> reviews = reviewRepository.findByProductId(product.getId());
-            double rating = 0;
-            int totalReview = 0;
-
-            if (!reviews.isEmpty()) {
-                rating = reviews.stream().mapToDouble(Review::getRating).average().getAsDouble();
-                totalReview = reviews.size();
-            }
-            productResponse.setRating(rating);
-            productResponse.setTotalReview(totalReview);
-
-            Integer totalSold = orderItemRepository.findTotalSold(product.getId())
-                    .orElse(0);
-            productResponse.setTotalSold(totalSold);
-
-            Double maxPrice = productRepository.maxPrice(product.getId())
-                    .orElse(0.0);
-            productResponse.setMaxPrice(maxPrice);
-
-            Double minPrice = productRepository.minPrice(product.getId())
-                    .orElse(0.0);
-            productResponse.setMinPrice(minPrice);
-
-            return productResponse;
-        }
-        catch (Exception e) {
-            throw new CoffeeShopException(Constant.SYSTEM_ERROR, new Object[]{e.getMessage()}, "Error when get product response");
-        }
+        return productResponseAssembler.toProductResponse(product);
     }
 
     public RespMessage deleteImage(Long id) {
@@ -365,36 +426,43 @@ public class ProductService {
         Image image = imageOptional.get();
         imageRepository.delete(image);
         cloudinaryService.delete(image.getUrl());
+        eventPublisher.publishEvent(new ProductChangedEvent(image.getProduct()));
         ProductResponse productResponse = getProductResponse(image.getProduct());
 
         return messageBuilder.buildSuccessMessage(productResponse);
     }
     	
-    public RespMessage getBestSellingProducts(Long brandId, Long CategoryId ) {
-    	LocalDate localDate = LocalDate.now().minusDays(90);
-    	Date fromDate = java.util.Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
-
-    	Pageable  pageable = PageRequest.of(0, 15);
-    	List<Long> ids = orderItemRepository.findTop15ActiveBestSellingProductsInLast90Days(CategoryId, brandId, fromDate, pageable);
-        List<ProductResponse> productResponses = new ArrayList<>();
-        
+    // Bảng xếp hạng được tính sẵn định kỳ bởi BestSellingRankingService
+    public RespMessage getBestSellingProducts(Long categoryId, Long brandId) {
+        String key = CatalogCacheService.bestSellingKey(BestSellingRankingService.rankingKey(categoryId, brandId));
+        return catalogCacheService.get(key, () -> {
+            List<Long> ids = bestSellingRankingService.getTopProductIds(categoryId, brandId);
+            List<ProductListView> products = findActiveListViewsInOrder(ids);
+            List<ProductResponse> productResponses = productResponseAssembler.toListResponses(products);
+            return messageBuilder.buildSuccessMessage(productResponses);
+        });
+    }
+
+    // Tải projection theo danh sách id, giữ nguyên thứ tự và bỏ sản phẩm không ACTIVE
+    private List<ProductListView> findActiveListViewsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductListView> viewById = new HashMap<>();
+        for (ProductListView view : productRepository.findActiveListViewsByIds(ids)) {
+            viewById.put(view.getId(), view);
+        }
+        List<ProductListView> views = new ArrayList<>();
         for (Long id : ids) {
-            try {
-                Optional<Product> productOp = productRepository.findById(id);
-                if (productOp.isPresent()) {
-                    Product product = productOp.get();
-                    if (product.getStatus() == Status.ACTIVE) {
-                        ProductResponse productResponse = getProductResponse(product);
-                        List<Image> images = imageRepository.findByProduct(product);
-                        productResponse.setImages(images);
-                        productResponses.add(productResponse);
-                    }
-                }
-            } catch (Exception e) {
-                continue;
+            ProductListView view = viewById.get(id);
+            if (view != null) {
+                views.add(view);
             }
         }
-        
-        return messageBuilder.buildSuccessMessage(productResponses);
+        return views;
+    }
+
+    public RespMessage getCacheStats() {
+        return messageBuilder.buildSuccessMessage(catalogCacheService.getStats());
     }
 }
@@ -0,0 +1,293 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.common.TextFolder;
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.event.ProductChangedEvent;
+import com.haui.coffee_shop.model.Brand;
+import com.haui.coffee_shop.model.Category;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductSummary;
+import com.haui.coffee_shop.payload.response.ProductListView;
+import com.haui.coffee_shop.payload.response.SuggestionResponse;
+import com.haui.coffee_shop.repository.ProductRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Accent-folded prefix trie for the search box. Product names, brands and categories are inserted under
+ * every word suffix of their name ("ca phe sua" is also reachable from "phe" and "sua"), and every node
+ * keeps its top {@link #TOP_K} suggestions by popularity so a lookup is a walk down the prefix.
+ * Popularity is the total sold of the product, or of all products of the brand / category.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSuggestIndex {
+    public static final int TOP_K = 10;
+
+    private static final String PRODUCT = "product";
+    private static final String BRAND = "brand";
+    private static final String CATEGORY = "category";
+
+    private final ProductRepository productRepository;
+    private final ProductSummaryService productSummaryService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    // key của suggestion (type:id) -> suggestion đang nằm trong trie
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, ProductInfo> products = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 */10 * * * *")
+    public void rebuild() {
+        List<ProductListView> activeProducts = productRepository.findActiveListViews();
+        Map<Long, ProductSummary> summaries = productSummaryService.getSummaries(activeProducts.stream().map(ProductListView::getId).toList());
+
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            suggestions.clear();
+            products.clear();
+            for (ProductListView product : activeProducts) {
+                products.put(product.getId(), new ProductInfo(product, summaries.get(product.getId()).getTotalSold()));
+            }
+            for (ProductInfo info : products.values()) {
+                put(new Suggestion(PRODUCT, info.id, info.name, info.sold));
+            }
+            Set<Long> categoryIds = new HashSet<>();
+            Set<Long> brandIds = new HashSet<>();
+            for (ProductInfo info : products.values()) {
+                categoryIds.add(info.categoryId);
+                brandIds.add(info.brandId);
+            }
+            categoryIds.forEach(this::refreshCategory);
+            brandIds.forEach(this::refreshBrand);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built suggestion trie with {} entries", suggestions.size());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        long productId = event.getProductId();
+        Optional<Product> product = productRepository.findById(productId).filter(p -> p.getStatus() == Status.ACTIVE);
+        int sold = product.isPresent() ? productSummaryService.getSummaries(List.of(productId)).get(productId).getTotalSold() : 0;
+
+        lock.writeLock().lock();
+        try {
+            ProductInfo old = product.isPresent() ? products.put(productId, new ProductInfo(new ProductListView(product.get()), sold)) : products.remove(productId);
+            if (product.isPresent()) {
+                put(new Suggestion(PRODUCT, productId, product.get().getName(), sold));
+            } else {
+                remove(PRODUCT + ":" + productId);
+            }
+
+            Set<Long> categoryIds = new HashSet<>(event.getCategoryIds());
+            Set<Long> brandIds = new HashSet<>(event.getBrandIds());
+            if (old != null) {
+                categoryIds.add(old.categoryId);
+                brandIds.add(old.brandId);
+            }
+            categoryIds.forEach(this::refreshCategory);
+            brandIds.forEach(this::refreshBrand);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = String.join(" ", TextFolder.tokenize(query));
+        List<SuggestionResponse> responses = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return responses;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) {
+                return responses;
+            }
+            for (Suggestion suggestion : node.top) {
+                if (responses.size() >= limit) {
+                    break;
+                }
+                responses.add(SuggestionResponse.builder()
+                        .type(suggestion.type)
+                        .id(suggestion.id)
+                        .text(suggestion.text)
+                        .build());
+            }
+            return responses;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Độ phổ biến của danh mục / thương hiệu = tổng lượt bán các sản phẩm active của nó
+    private void refreshCategory(long categoryId) {
+        refreshOwner(CATEGORY, categoryId, info -> info.categoryId == categoryId ? info.categoryName : null);
+    }
+
+    private void refreshBrand(long brandId) {
+        refreshOwner(BRAND, brandId, info -> info.brandId == brandId ? info.brandName : null);
+    }
+
+    private void refreshOwner(String type, long ownerId, Function<ProductInfo, String> nameOf) {
+        String name = null;
+        long sold = 0;
+        for (ProductInfo info : products.values()) {
+            String ownerName = nameOf.apply(info);
+            if (ownerName != null) {
+                name = ownerName;
+                sold += info.sold;
+            }
+        }
+        if (name == null) {
+            remove(type + ":" + ownerId);
+        } else {
+            put(new Suggestion(type, ownerId, name, sold));
+        }
+    }
+
+    private void put(Suggestion suggestion) {
+        Suggestion old = suggestions.get(suggestion.key());
+        if (old != null) {
+            if (old.text.equals(suggestion.text) && old.score == suggestion.score) {
+                return;
+            }
+            remove(old.key());
+        }
+        suggestions.put(suggestion.key(), suggestion);
+        for (String key : keysOf(suggestion.text)) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                path.add(node);
+            }
+            node.terminals.add(suggestion);
+            recompute(path);
+        }
+    }
+
+    private void remove(String suggestionKey) {
+        Suggestion suggestion = suggestions.remove(suggestionKey);
+        if (suggestion == null) {
+            return;
+        }
+        for (String key : keysOf(suggestion.text)) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null) {
+                continue;
+            }
+            node.terminals.remove(suggestion);
+            // Cắt các nút rỗng ở cuối đường đi
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node current = path.get(i);
+                if (!current.terminals.isEmpty() || !current.children.isEmpty()) {
+                    break;
+                }
+                path.get(i - 1).children.remove(key.charAt(i - 1));
+                path.remove(i);
+            }
+            recompute(path);
+        }
+    }
+
+    // Top-K của một nút = top-K của (suggestion kết thúc tại nút ∪ top-K các nút con), tính từ dưới lên
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Map<String, Suggestion> candidates = new HashMap<>();
+            for (Suggestion suggestion : node.terminals) {
+                candidates.put(suggestion.key(), suggestion);
+            }
+            for (Node child : node.children.values()) {
+                for (Suggestion suggestion : child.top) {
+                    candidates.put(suggestion.key(), suggestion);
+                }
+            }
+            List<Suggestion> top = new ArrayList<>(candidates.values());
+            top.sort(Comparator.comparingLong((Suggestion suggestion) -> suggestion.score).reversed()
+                    .thenComparing(suggestion -> suggestion.text));
+            node.top = top.size() > TOP_K ? new ArrayList<>(top.subList(0, TOP_K)) : top;
+        }
+    }
+
+    private List<String> keysOf(String text) {
+        List<String> tokens = TextFolder.tokenize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Suggestion> terminals = new ArrayList<>();
+        private List<Suggestion> top = new ArrayList<>();
+    }
+
+    private static class Suggestion {
+        private final String type;
+        private final long id;
+        private final String text;
+        private final long score;
+
+        Suggestion(String type, long id, String text, long score) {
+            this.type = type;
+            this.id = id;
+            this.text = text == null ? "" : text;
+            this.score = score;
+        }
+
+        String key() {
+            return type + ":" + id;
+        }
+    }
+
+    private static class ProductInfo {
+        private final long id;
+        private final String name;
+        private final long categoryId;
+        private final String categoryName;
+        private final long brandId;
+        private final String brandName;
+        private final int sold;
+
+        ProductInfo(ProductListView product, int sold) {
+            Category category = product.getCategory();
+            Brand brand = product.getBrand();
+            this.id = product.getId();
+            this.name = product.getName();
+            this.categoryId = category == null ? 0 : category.getId();
+            this.categoryName = category == null || category.getStatus() != Status.ACTIVE ? null : category.getName();
+            this.brandId = brand == null ? 0 : brand.getId();
+            this.brandName = brand == null || brand.getStatus() != Status.ACTIVE ? null : brand.getName();
+            this.sold = sold;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.haui.coffee_shop.event.ProductSummaryChangedEvent;
+import com.haui.coffee_shop.model.OrderItem;
+import com.haui.coffee_shop.model.ProductSummary;
+import com.haui.coffee_shop.repository.OrderItemRepository;
+import com.haui.coffee_shop.repository.ProductRepository;
+import com.haui.coffee_shop.repository.ProductSummaryRepository;
+import com.haui.coffee_shop.repository.ReviewRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the product_summary projection (rating, total review, total sold, active price range).
+ * Review, order and product item writes apply their delta directly; {@link #rebuildAll()} recomputes
+ * everything from the source tables to repair drift. Every change publishes a {@link ProductSummaryChangedEvent}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSummaryService {
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    private final ProductSummaryRepository productSummaryRepository;
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Số đã bán của các dòng flash sale đang chờ ghi, theo product
+    private final Map<Long, Integer> pendingSold = new ConcurrentHashMap<>();
+    // Product có tồn kho vừa đổi, chờ tính lại khoảng giá
+    private final Set<Long> pendingPriceRange = ConcurrentHashMap.newKeySet();
+    // applyPending và từng lô của rebuildAll không chạy xen nhau; cả hai đều chạy ngoài giao dịch nên không giữ khóa DB khi chờ
+    private final Object pendingLock = new Object();
+
+    public Map<Long, ProductSummary> getSummaries(Collection<Long> productIds) {
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        for (ProductSummary summary : productSummaryRepository.findAllById(productIds)) {
+            summaries.put(summary.getProductId(), summary);
+        }
+        // Chỉ tính cho dòng còn thiếu, không ghi ở đường đọc để các lượt đọc đồng thời không cùng insert một khóa;
+        // dòng được tạo khi khởi động (rebuildAll), khi tạo sản phẩm và ở các đường ghi
+        List<Long> missingIds = productIds.stream().filter(id -> !summaries.containsKey(id)).toList();
+        if (!missingIds.isEmpty()) {
+            summaries.putAll(compute(missingIds));
+        }
+        return summaries;
+    }
+
+    public void onReviewAdded(long productId, double rating) {
+        if (productSummaryRepository.addReview(productId, rating) == 0) {
+            rebuild(List.of(productId));
+        }
+        eventPublisher.publishEvent(new ProductSummaryChangedEvent(List.of(productId)));
+    }
+
+    public void onReviewRemoved(long productId, double rating) {
+        if (productSummaryRepository.removeReview(productId, rating) == 0) {
+            rebuild(List.of(productId));
+        }
+        eventPublisher.publishEvent(new ProductSummaryChangedEvent(List.of(productId)));
+    }
+
+    public void onOrderPlaced(List<OrderItem> orderItems) {
+        applySold(orderItems, 1);
+    }
+
+    public void onOrderCancelled(List<OrderItem> orderItems) {
+        applySold(orderItems, -1);
+    }
+
+    /**
+     * Like {@link #onOrderPlaced(List)} but only accumulates the delta in memory; {@link #applyPending()}
+     * writes it in one UPDATE per product. Used for flash-sale lines after their order committed, so order
+     * transactions never queue on the summary row of a hot product. Deltas lost on a crash are repaired by
+     * {@link #rebuildAll()}.
+     */
+    public void deferOrderPlaced(List<OrderItem> orderItems) {
+        for (OrderItem orderItem : orderItems) {
+            pendingSold.merge(orderItem.getProductItem().getProduct().getId(), orderItem.getAmount(), Integer::sum);
+        }
+    }
+
+    // Tồn kho đổi do giữ hàng / trả hàng: khoảng giá tính lại theo lô ở applyPending, không ở đường request
+    public void deferPriceRangeRefresh(Collection<Long> productIds) {
+        pendingPriceRange.addAll(productIds);
+    }
+
+    @Scheduled(fixedDelayString = "${product-summary.apply-ms:1000}")
+    public void applyPending() {
+        synchronized (pendingLock) {
+            applyPendingLocked();
+        }
+    }
+
+    private void applyPendingLocked() {
+        Set<Long> priceRangeIds = new HashSet<>();
+        for (Long productId : new ArrayList<>(pendingPriceRange)) {
+            if (pendingPriceRange.remove(productId)) {
+                priceRangeIds.add(productId);
+            }
+        }
+        Map<Long, Integer> amountByProduct = new HashMap<>();
+        for (Long productId : new ArrayList<>(pendingSold.keySet())) {
+            Integer amount = pendingSold.remove(productId);
+            if (amount != null && amount != 0) {
+                amountByProduct.put(productId, amount);
+            }
+        }
+        try {
+            applySold(amountByProduct);
+        } catch (RuntimeException e) {
+            // Ghi lại vào hàng chờ để lượt sau thử tiếp, không làm mất số đã bán
+            amountByProduct.forEach((productId, amount) -> pendingSold.merge(productId, amount, Integer::sum));
+            log.warn("Cannot apply pending total sold for {} products", amountByProduct.size(), e);
+        }
+        priceRangeIds.removeAll(amountByProduct.keySet());
+        try {
+            refreshPriceRange(priceRangeIds);
+        } catch (RuntimeException e) {
+            pendingPriceRange.addAll(priceRangeIds);
+            log.warn("Cannot refresh pending price range for {} products", priceRangeIds.size(), e);
+        }
+    }
+
+    // Khoảng giá chỉ tính các product item đang ACTIVE và còn hàng nên phải tính lại khi giá hoặc tồn kho đổi
+    public void refreshPriceRange(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Object[]> priceByProduct = new HashMap<>();
+        for (Object[] row : productRepository.findPriceRangeByProductIds(productIds)) {
+            priceByProduct.put((Long) row[0], row);
+        }
+        for (Long productId : productIds) {
+            Object[] price = priceByProduct.get(productId);
+            double minPrice = price == null || price[1] == null ? 0.0 : ((Number) price[1]).doubleValue();
+            double maxPrice = price == null || price[2] == null ? 0.0 : ((Number) price[2]).doubleValue();
+            if (productSummaryRepository.updatePriceRange(productId, minPrice, maxPrice) == 0) {
+                rebuild(List.of(productId));
+            }
+        }
+        eventPublisher.publishEvent(new ProductSummaryChangedEvent(productIds));
+    }
+
+    // Tính lại ngay trong DB (INSERT ... SELECT) để khóa dòng summary cùng lúc với các delta đang chạy song song
+    public void rebuild(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productSummaryRepository.rebuild(productIds);
+        eventPublisher.publishEvent(new ProductSummaryChangedEvent(productIds));
+    }
+
+    // Tính summary từ các bảng gốc cho đường đọc, không ghi xuống DB
+    private Map<Long, ProductSummary> compute(Collection<Long> productIds) {
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return summaries;
+        }
+        for (Long productId : productIds) {
+            summaries.put(productId, new ProductSummary(productId));
+        }
+
+        for (Object[] row : reviewRepository.findRatingByProductIds(productIds)) {
+            ProductSummary summary = summaries.get((Long) row[0]);
+            double rating = ((Number) row[1]).doubleValue();
+            int totalReview = ((Number) row[2]).intValue();
+            summary.setRating(rating);
+            summary.setTotalReview(totalReview);
+            summary.setRatingTotal(rating * totalReview);
+        }
+        for (Object[] row : orderItemRepository.findTotalSoldByProductIds(productIds)) {
+            summaries.get((Long) row[0]).setTotalSold(row[1] == null ? 0 : ((Number) row[1]).intValue());
+        }
+        for (Object[] row : productRepository.findPriceRangeByProductIds(productIds)) {
+            ProductSummary summary = summaries.get((Long) row[0]);
+            summary.setMinPrice(row[1] == null ? 0.0 : ((Number) row[1]).doubleValue());
+            summary.setMaxPrice(row[2] == null ? 0.0 : ((Number) row[2]).doubleValue());
+        }
+        return summaries;
+    }
+
+    // Chạy lúc khởi động (tạo summary còn thiếu) và 3h sáng mỗi ngày để sửa sai lệch
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * *")
+    public void rebuildAll() {
+        List<Long> productIds = productRepository.findAllIds();
+        for (int from = 0; from < productIds.size(); from += REBUILD_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, productIds.size()));
+            synchronized (pendingLock) {
+                // Đơn flash sale đang chờ ghi đã commit nên đã nằm trong số tính lại; bỏ delta để không cộng hai lần
+                chunk.forEach(pendingSold::remove);
+                rebuild(chunk);
+            }
+        }
+        log.info("Rebuilt product summary for {} products", productIds.size());
+    }
+
+    private void applySold(List<OrderItem> orderItems, int sign) {
+        Map<Long, Integer> amountByProduct = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            amountByProduct.merge(orderItem.getProductItem().getProduct().getId(), sign * orderItem.getAmount(), Integer::sum);
+        }
+        applySold(amountByProduct);
+    }
+
+    private void applySold(Map<Long, Integer> amountByProduct) {
+        for (Map.Entry<Long, Integer> entry : amountByProduct.entrySet()) {
+            if (productSummaryRepository.addTotalSold(entry.getKey(), entry.getValue()) == 0) {
+                rebuild(List.of(entry.getKey()));
+            }
+        }
+        refreshPriceRange(amountByProduct.keySet());
+    }
+}
@@ -2,8 +2,10 @@ package com.haui.coffee_shop.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.enums.OutboxEventType;
 import com.haui.coffee_shop.common.enums.Status;
 import com.haui.coffee_shop.config.MessageBuilder;
 import com.haui.coffee_shop.exception.CoffeeShopException;
@@ -19,6 +21,7 @@ import com.haui.coffee_shop.repository.ReviewRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -29,7 +32,10 @@ public class ReviewService {
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final ProductItemRepository productItemRepository;
+    private final ProductSummaryService productSummaryService;
+    private final OutboxService outboxService;
 
+    @Transactional
     public RespMessage addReview(ReviewRequet reviewRequet) {
         Optional<OrderItem> orderItemOptional = orderItemRepository.findById(reviewRequet.getOrderItemId());
         if (orderItemOptional.isPresent()) {
@@ -42,6 +48,12 @@ public class ReviewService {
             try {
                 orderItemRepository.save(orderItem);
                 reviewRepository.save(review);
+                productSummaryService.onReviewAdded(orderItem.getProductItem().getProduct().getId(), review.getRating());
+                outboxService.publish(OutboxEventType.REVIEW_CREATED, review.getId(), Map.of(
+                        "reviewId", review.getId(),
+                        "orderItemId", orderItem.getId(),
+                        "productId", orderItem.getProductItem().getProduct().getId(),
+                        "rating", review.getRating()));
                 return messageBuilder.buildSuccessMessage(review.toResponse());
             } catch (CoffeeShopException e) {
                 throw new CoffeeShopException(Constant.UNDEFINED, null, "Review could not be saved");
@@ -61,9 +73,13 @@ public class ReviewService {
         Optional<Review> reviewOptional = reviewRepository.findById(reviewId);
         if (reviewOptional.isPresent()) {
             Review review = reviewOptional.get();
+            boolean wasActive = review.getStatus() == Status.ACTIVE;
             review.setStatus(Status.INACTIVE);
             try {
                 reviewRepository.save(review);
+                if (wasActive) {
+                    productSummaryService.onReviewRemoved(review.getOrderItem().getProductItem().getProduct().getId(), review.getRating());
+                }
                 return messageBuilder.buildSuccessMessage(review.toResponse());
             } catch (CoffeeShopException e) {
                 throw new CoffeeShopException(Constant.UNDEFINED, null, "Review could not be saved");
@@ -0,0 +1,274 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.enums.ReservationStatus;
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.model.ProductItem;
+import com.haui.coffee_shop.model.StockReservation;
+import com.haui.coffee_shop.payload.request.OrderItemRequest;
+import com.haui.coffee_shop.payload.request.StockHoldRequest;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.payload.response.StockAvailabilityResponse;
+import com.haui.coffee_shop.payload.response.StockHoldResponse;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+import com.haui.coffee_shop.repository.StockReservationRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds stock between checkout and payment. A hold takes its quantity out of product_item.stock with the
+ * same conditional UPDATE as an order, so it can never oversell, and gives it back when it expires or is
+ * released. Active holds are mirrored in memory (per item and per token) so held / on-hand quantities and
+ * the expiry sweep never need a SUM over stock_reservation.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StockReservationService {
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductItemRepository productItemRepository;
+    private final MessageBuilder messageBuilder;
+    private final ProductSummaryService productSummaryService;
+
+    @Value("${stock-hold.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private final Map<Long, Integer> heldByProductItem = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holdsByToken = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        heldByProductItem.clear();
+        holdsByToken.clear();
+        Map<String, List<StockReservation>> byToken = new HashMap<>();
+        for (StockReservation reservation : stockReservationRepository.findByStatus(ReservationStatus.ACTIVE)) {
+            byToken.computeIfAbsent(reservation.getToken(), key -> new ArrayList<>()).add(reservation);
+        }
+        byToken.forEach((token, reservations) -> addHold(new Hold(token, reservations)));
+        log.info("Loaded {} active stock holds", holdsByToken.size());
+    }
+
+    @Transactional
+    public RespMessage reserve(StockHoldRequest request) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_NULL, new Object[]{"items"}, "Items cannot be empty");
+        }
+        Map<Long, Integer> amountByProductItem = new LinkedHashMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            if (item.getAmount() <= 0) {
+                throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"amount"}, "Amount must be greater than 0");
+            }
+            amountByProductItem.merge(item.getProductItemId(), item.getAmount(), Integer::sum);
+        }
+
+        List<ProductItem> productItems = productItemRepository.findAllById(amountByProductItem.keySet());
+        if (productItems.size() != amountByProductItem.size()
+                || productItems.stream().anyMatch(productItem -> productItem.getStatus() != Status.ACTIVE)) {
+            throw new CoffeeShopException(Constant.NOT_FOUND, new Object[]{"product_item"}, "ProductItem not found");
+        }
+        if (productItemRepository.decrementStock(amountByProductItem) != amountByProductItem.size()) {
+            throw new CoffeeShopException(Constant.FIELD_NOT_VALID, new Object[]{"amount"}, "Amount Item cannot be greater than stock");
+        }
+
+        String token = UUID.randomUUID().toString();
+        Date now = new Date();
+        Date expiresAt = new Date(now.getTime() + ttlMinutes * 60 * 1000);
+        List<StockReservation> reservations = new ArrayList<>();
+        for (ProductItem productItem : productItems) {
+            reservations.add(StockReservation.builder()
+                    .token(token)
+                    .productItem(productItem)
+                    .amount(amountByProductItem.get(productItem.getId()))
+                    .userEmail(userEmail)
+                    .status(ReservationStatus.ACTIVE)
+                    .expiresAt(expiresAt)
+                    .createdAt(now)
+                    .build());
+        }
+        stockReservationRepository.saveAll(reservations);
+
+        Hold hold = new Hold(token, reservations);
+        afterCommit(() -> addHold(hold));
+        // Tồn kho giảm nên khoảng giá (chỉ tính item còn hàng) có thể đổi
+        afterCommit(() -> productSummaryService.deferPriceRangeRefresh(hold.productIds));
+        return messageBuilder.buildSuccessMessage(StockHoldResponse.builder()
+                .reservationId(token)
+                .expiresAt(expiresAt)
+                .items(amountByProductItem)
+                .build());
+    }
+
+    // Người dùng bỏ checkout
+    @Transactional
+    public RespMessage releaseByUser(String token) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        Hold hold = holdsByToken.get(token);
+        if (hold == null) {
+            throw new CoffeeShopException(Constant.NOT_FOUND, new Object[]{"reservation"}, "Reservation not found");
+        }
+        if (!hold.userEmail.equals(userEmail)) {
+            throw new CoffeeShopException(Constant.UNAUTHORIZED, new Object[]{"reservation"}, "Reservation belongs to another user");
+        }
+        release(token);
+        return messageBuilder.buildSuccessMessage(token);
+    }
+
+    // Trả hàng về kho; gọi từ sweeper hoặc khi người dùng hủy. Trả false nếu token đã được xử lý trước đó
+    @Transactional
+    public boolean release(String token) {
+        if (stockReservationRepository.closeActive(token, ReservationStatus.RELEASED) == 0) {
+            afterCommit(() -> removeHold(token));
+            return false;
+        }
+        List<StockReservation> reservations = stockReservationRepository.findByToken(token);
+        productItemRepository.incrementStock(amountsOf(reservations));
+        afterCommit(() -> removeHold(token));
+        afterCommit(() -> productSummaryService.deferPriceRangeRefresh(new Hold(token, reservations).productIds));
+        return true;
+    }
+
+    /**
+     * Chuyển giữ hàng thành bán khi đặt đơn, phải chạy trong transaction của đơn hàng.
+     * userEmail là chủ đơn (người nhận theo địa chỉ giao hàng), truyền tường minh vì luồng đặt đơn bất đồng bộ
+     * không nhất thiết có SecurityContext; không có hoặc khác chủ giữ hàng thì từ chối.
+     * Trả về số lượng đã giữ theo từng product item; phần giữ dư so với đơn được trả lại kho ngay.
+     * Giữ hàng đã hết hạn hoặc không còn (ví dụ hết hạn trong lúc thanh toán VNPay) coi như không giữ gì:
+     * trả về map rỗng để đơn trừ kho có điều kiện như bình thường.
+     */
+    public Map<Long, Integer> consume(String token, String userEmail, Map<Long, Integer> orderedAmounts) {
+        Hold hold = holdsByToken.get(token);
+        if (hold == null) {
+            return new HashMap<>();
+        }
+        if (userEmail == null || !hold.userEmail.equals(userEmail)) {
+            throw new CoffeeShopException(Constant.UNAUTHORIZED, new Object[]{"reservation"}, "Reservation belongs to another user");
+        }
+        // Hết hạn nhưng sweeper chưa chạy: trả hàng về kho trước để đơn trừ lại được phần đó
+        if (hold.expiresAt.before(new Date())) {
+            release(token);
+            return new HashMap<>();
+        }
+        // Sweeper vừa đóng token này
+        if (stockReservationRepository.closeActive(token, ReservationStatus.CONVERTED) == 0) {
+            afterCommit(() -> removeHold(token));
+            return new HashMap<>();
+        }
+
+        Map<Long, Integer> covered = new HashMap<>();
+        Map<Long, Integer> surplus = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : hold.amounts.entrySet()) {
+            int ordered = orderedAmounts.getOrDefault(entry.getKey(), 0);
+            int used = Math.min(ordered, entry.getValue());
+            if (used > 0) {
+                covered.put(entry.getKey(), used);
+            }
+            if (entry.getValue() > used) {
+                surplus.put(entry.getKey(), entry.getValue() - used);
+            }
+        }
+        productItemRepository.incrementStock(surplus);
+        afterCommit(() -> removeHold(token));
+        if (!surplus.isEmpty()) {
+            afterCommit(() -> productSummaryService.deferPriceRangeRefresh(hold.productIds));
+        }
+        return covered;
+    }
+
+    // Lượng đang giữ theo token (chỉ đọc bộ nhớ), dùng để ước lượng trước khi đặt đơn; consume mới là kết quả chính thức
+    public Map<Long, Integer> getHeldAmounts(String token, String userEmail) {
+        Hold hold = holdsByToken.get(token);
+        if (hold == null || !hold.userEmail.equals(userEmail) || hold.expiresAt.before(new Date())) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(hold.amounts);
+    }
+
+    public List<String> findExpiredTokens() {
+        Date now = new Date();
+        return holdsByToken.values().stream()
+                .filter(hold -> hold.expiresAt.before(now))
+                .map(hold -> hold.token)
+                .toList();
+    }
+
+    public RespMessage getAvailability(List<Long> productItemIds) {
+        List<StockAvailabilityResponse> responses = new ArrayList<>();
+        for (ProductItem productItem : productItemRepository.findAllById(productItemIds)) {
+            int held = heldByProductItem.getOrDefault(productItem.getId(), 0);
+            responses.add(StockAvailabilityResponse.builder()
+                    .productItemId(productItem.getId())
+                    .available(productItem.getStock())
+                    .held(held)
+                    .onHand(productItem.getStock() + held)
+                    .build());
+        }
+        return messageBuilder.buildSuccessMessage(responses);
+    }
+
+    private void addHold(Hold hold) {
+        if (holdsByToken.putIfAbsent(hold.token, hold) == null) {
+            hold.amounts.forEach((productItemId, amount) -> heldByProductItem.merge(productItemId, amount, Integer::sum));
+        }
+    }
+
+    private void removeHold(String token) {
+        Hold hold = holdsByToken.remove(token);
+        if (hold != null) {
+            hold.amounts.forEach((productItemId, amount) ->
+                    heldByProductItem.computeIfPresent(productItemId, (id, held) -> held - amount > 0 ? held - amount : null));
+        }
+    }
+
+    private Map<Long, Integer> amountsOf(List<StockReservation> reservations) {
+        Map<Long, Integer> amounts = new HashMap<>();
+        for (StockReservation reservation : reservations) {
+            amounts.merge(reservation.getProductItem().getId(), reservation.getAmount(), Integer::sum);
+        }
+        return amounts;
+    }
+
+    // Chỉ cập nhật bộ nhớ khi transaction đã commit để không lệch với DB khi rollback
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private class Hold {
+        private final String token;
+        private final String userEmail;
+        private final Date expiresAt;
+        private final Map<Long, Integer> amounts;
+        private final Set<Long> productIds = new HashSet<>();
+
+        Hold(String token, List<StockReservation> reservations) {
+            this.token = token;
+            this.userEmail = reservations.get(0).getUserEmail();
+            this.expiresAt = reservations.get(0).getExpiresAt();
+            this.amounts = amountsOf(reservations);
+            reservations.forEach(reservation -> productIds.add(reservation.getProductItem().getProduct().getId()));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.haui.coffee_shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Trả lại kho cho các lần giữ hàng đã hết hạn; mỗi token chạy trong transaction riêng
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockReservationSweeper {
+    private final StockReservationService stockReservationService;
+
+    @Scheduled(fixedDelayString = "${stock-hold.sweep-ms:60000}")
+    public void releaseExpired() {
+        int released = 0;
+        for (String token : stockReservationService.findExpiredTokens()) {
+            try {
+                if (stockReservationService.release(token)) {
+                    released++;
+                }
+            } catch (Exception e) {
+                log.warn("Cannot release stock hold {}", token, e);
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} expired stock holds", released);
+        }
+    }
+}
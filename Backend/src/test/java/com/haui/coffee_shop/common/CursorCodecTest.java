@@ -0,0 +1,60 @@
+package com.haui.coffee_shop.common;
+
+import org.junit.jupiter.api.Test;
+
+import com.haui.coffee_shop.exception.CoffeeShopException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    @Test
+    void encodedPartsDecodeBackInOrder() {
+        String cursor = CursorCodec.encode("price", 12.5, 42L);
+
+        assertThat(CursorCodec.decode(cursor, 3)).containsExactly("price", "12.5", "42");
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = CursorCodec.encode("newest", "??>>", 1L);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void nullAndEmptyPartsAreKept() {
+        String cursor = CursorCodec.encode("newest", null, 7L);
+
+        assertThat(CursorCodec.decode(cursor, 3)).containsExactly("newest", "", "7");
+        assertThat(CursorCodec.decode(CursorCodec.encode("newest", "", ""), 3)).containsExactly("newest", "", "");
+    }
+
+    @Test
+    void wrongNumberOfPartsIsRejected() {
+        String cursor = CursorCodec.encode("price", 12.5);
+
+        assertThatThrownBy(() -> CursorCodec.decode(cursor, 3))
+                .isInstanceOf(CoffeeShopException.class)
+                .extracting("code").isEqualTo(Constant.FIELD_NOT_VALID);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> CursorCodec.decode("not a cursor!", 3))
+                .isInstanceOf(CoffeeShopException.class)
+                .extracting("code").isEqualTo(Constant.FIELD_NOT_VALID);
+    }
+
+    @Test
+    void tamperedCursorWithExtraSeparatorIsRejected() {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("price|1|2|3".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CursorCodec.decode(tampered, 3)).isInstanceOf(CoffeeShopException.class);
+    }
+}
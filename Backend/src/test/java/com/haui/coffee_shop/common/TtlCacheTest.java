@@ -0,0 +1,88 @@
+package com.haui.coffee_shop.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedFirst() {
+        TtlCache<String, Integer> cache = new TtlCache<>(2, 60_000);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsAMiss() throws InterruptedException {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 20);
+        cache.put("a", 1);
+        Thread.sleep(50);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getExpirations()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isZero();
+    }
+
+    @Test
+    void loaderRunsOnlyOnMiss() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", () -> loads.incrementAndGet() * 10)).isEqualTo(10);
+        assertThat(cache.get("a", () -> loads.incrementAndGet() * 10)).isEqualTo(10);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void nullFromLoaderIsNotCached() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000);
+
+        assertThat(cache.get("a", () -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void valueLoadedBeforeAnInvalidateIsNotCached() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000);
+
+        // Giá trị đọc xong rồi mới bị invalidate (ví dụ sản phẩm vừa được sửa) thì không được giữ lại
+        Integer value = cache.get("a", () -> {
+            cache.invalidate("a");
+            return 1;
+        });
+
+        assertThat(value).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("a", () -> 2)).isEqualTo(2);
+        assertThat(cache.get("a")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateIfRemovesMatchingKeysOnly() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60_000);
+        cache.put("product:1", 1);
+        cache.put("product:2", 2);
+        cache.put("brand:1", 3);
+
+        cache.invalidateIf(key -> key.startsWith("product:"));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("brand:1")).isEqualTo(3);
+    }
+}
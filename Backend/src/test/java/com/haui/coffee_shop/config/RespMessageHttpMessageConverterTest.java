@@ -0,0 +1,176 @@
+package com.haui.coffee_shop.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.haui.coffee_shop.common.GsonUtil;
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.model.Brand;
+import com.haui.coffee_shop.model.Category;
+import com.haui.coffee_shop.model.Image;
+import com.haui.coffee_shop.payload.response.OrderItemResponse;
+import com.haui.coffee_shop.payload.response.OrderResponse;
+import com.haui.coffee_shop.payload.response.ProductResponse;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.payload.response.ShippingAddressResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RespMessageHttpMessageConverterTest {
+    private static final long CREATED_AT = 1760745157123L;
+
+    private final RespMessageHttpMessageConverter converter = new RespMessageHttpMessageConverter();
+    // Cấu hình Jackson giống Spring Boot mặc định: ngày ghi dạng chuỗi ISO chứ không phải số
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void productIsWrittenTheSameByGsonAndJackson() throws IOException {
+        RespMessage respMessage = success(List.of(product(1L)));
+
+        JsonNode gson = writeWithGson(respMessage);
+
+        assertThat(gson).isEqualTo(writeWithJackson(respMessage));
+        assertThat(gson.at("/data/0/createdAt").asText()).isEqualTo("2025-10-17T23:52:37.123+00:00");
+    }
+
+    @Test
+    void orderIsWrittenTheSameByGsonAndJackson() throws IOException {
+        RespMessage respMessage = success(order());
+
+        JsonNode gson = writeWithGson(respMessage);
+
+        assertThat(gson).isEqualTo(writeWithJackson(respMessage));
+        // Frontend đọc record.isReviewed
+        assertThat(gson.at("/data/orderItems/0/isReviewed").asBoolean()).isTrue();
+        assertThat(gson.at("/data/orderItems/0/reviewed").isMissingNode()).isTrue();
+    }
+
+    @Test
+    void streamingAllocatesLessThanAnIntermediateString() throws IOException {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        List<ProductResponse> products = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            products.add(product(i));
+        }
+        RespMessage respMessage = success(products);
+        long threadId = Thread.currentThread().getId();
+
+        long streamed = 0;
+        long buffered = 0;
+        int rounds = 50;
+        for (int round = 0; round < 2; round++) {
+            long start = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < rounds; i++) {
+                converter.write(respMessage, MediaType.APPLICATION_JSON, new DiscardingOutputMessage());
+            }
+            streamed = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+            start = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < rounds; i++) {
+                // Cách cũ: GsonUtil.toJson ra String rồi mới ghi xuống response
+                new DiscardingOutputMessage().getBody()
+                        .write(GsonUtil.getInstance().toJson(respMessage).getBytes(StandardCharsets.UTF_8));
+            }
+            buffered = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+        }
+
+        // Lượt đầu để làm nóng JIT, chỉ giữ số đo của lượt sau.
+        // Ngưỡng rộng; đo thực tế khoảng 310 KB so với 880 KB cho mỗi phản hồi 200 sản phẩm
+        assertThat(streamed).isLessThan(buffered / 2);
+    }
+
+    private JsonNode writeWithGson(RespMessage respMessage) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(respMessage, MediaType.APPLICATION_JSON, outputMessage);
+        return objectMapper.readTree(outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    private JsonNode writeWithJackson(RespMessage respMessage) throws IOException {
+        return objectMapper.readTree(objectMapper.writeValueAsString(respMessage));
+    }
+
+    private static RespMessage success(Object data) {
+        return RespMessage.builder().respCode("000").respDesc("Success").data(data).build();
+    }
+
+    private static ProductResponse product(long id) {
+        Category category = new Category();
+        category.setId(2L);
+        category.setName("Cà phê hạt");
+        category.setStatus(Status.ACTIVE);
+        Brand brand = new Brand();
+        brand.setId(3L);
+        brand.setName("Cầu Đất Farm");
+        brand.setStatus(Status.ACTIVE);
+        return ProductResponse.builder()
+                .id(id)
+                .name("Arabica Cầu Đất " + id)
+                .description("Hạt rang mộc, hậu vị <socola> & trái cây")
+                .category(category)
+                .brand(brand)
+                .status(Status.ACTIVE)
+                .price(new BigDecimal("125000.50"))
+                .images(List.of(new Image(id, "https://cdn.example.com/" + id + ".jpg", null)))
+                .rating(4.5)
+                .totalReview(12)
+                .totalSold(340)
+                .maxPrice(250000)
+                .minPrice(125000.5)
+                .origin("Lâm Đồng")
+                // Entity đọc từ DB trả về java.sql.Timestamp
+                .createdAt(new Timestamp(CREATED_AT))
+                .build();
+    }
+
+    private static OrderResponse order() {
+        OrderItemResponse orderItem = OrderItemResponse.builder()
+                .orderItemId(7L)
+                .productItemId(5L)
+                .productId(1L)
+                .productName("Arabica Cầu Đất")
+                .productType("250g")
+                .amount(2)
+                .price(125000)
+                .discount(10)
+                .isReviewed(true)
+                .build();
+        ShippingAddressResponse shippingAddress = new ShippingAddressResponse(4L, "Nguyễn Văn A", "0912345678",
+                "Hà Nội", Status.ACTIVE, null);
+        return new OrderResponse(9L, "PENDING", new Date(CREATED_AT), List.of(orderItem), 225000, "CASH", shippingAddress);
+    }
+
+    private static class DiscardingOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.haui.coffee_shop.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuestCartTokenCodecTest {
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItZ3Vlc3QtY2FydC10b2tlbi10ZXN0cw==";
+    private static final String OTHER_SECRET = "b3RoZXItc2VjcmV0LWtleS1mb3ItZ3Vlc3QtY2FydC10ZXN0cw==";
+
+    private final GuestCartTokenCodec codec = new GuestCartTokenCodec(SECRET, 30, 3);
+
+    @Test
+    void quantitiesRoundTripInOrder() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(7L, 2);
+        quantities.put(3L, 1);
+        quantities.put(5L, 4);
+
+        assertThat(codec.decode(codec.encode(quantities))).containsExactly(
+                Map.entry(7L, 2), Map.entry(3L, 1), Map.entry(5L, 4));
+    }
+
+    @Test
+    void emptyCartRoundTrips() {
+        assertThat(codec.decode(codec.encode(Map.of()))).isEmpty();
+        assertThat(codec.decode(null)).isEmpty();
+        assertThat(codec.decode(" ")).isEmpty();
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String[] parts = codec.encode(Map.of(5L, 2)).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("5:2", "5:20").getBytes(StandardCharsets.UTF_8));
+
+        assertRejected(parts[0] + "." + forged + "." + parts[2], Constant.FIELD_NOT_VALID);
+    }
+
+    @Test
+    void tokenFromAnotherSecretIsRejected() {
+        String token = new GuestCartTokenCodec(OTHER_SECRET, 30, 3).encode(Map.of(5L, 2));
+
+        assertRejected(token, Constant.FIELD_NOT_VALID);
+    }
+
+    @Test
+    void tokenSignedWithTheAccessTokenKeyIsRejected() {
+        // Khóa của giỏ khách được dẫn xuất riêng, token ký bằng khóa access token không dùng được ở đây
+        String token = Jwts.builder()
+                .claim("c", "5:2")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertRejected(token, Constant.FIELD_NOT_VALID);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = new GuestCartTokenCodec(SECRET, -1, 3).encode(Map.of(5L, 2));
+
+        assertRejected(token, Constant.FIELD_EXPIRED);
+    }
+
+    @Test
+    void cartLargerThanMaxLinesCannotBeEncoded() {
+        assertThatThrownBy(() -> codec.encode(Map.of(1L, 1, 2L, 1, 3L, 1, 4L, 1)))
+                .isInstanceOf(CoffeeShopException.class)
+                .extracting("code").isEqualTo(Constant.FIELD_NOT_VALID);
+    }
+
+    private void assertRejected(String token, String code) {
+        assertThatThrownBy(() -> codec.decode(token))
+                .isInstanceOf(CoffeeShopException.class)
+                .extracting("code").isEqualTo(code);
+    }
+}
@@ -0,0 +1,110 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.StaticMessageSource;
+
+import com.haui.coffee_shop.common.enums.CartOperationType;
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductItem;
+import com.haui.coffee_shop.payload.request.CartOperationRequest;
+import com.haui.coffee_shop.payload.request.GuestCartMergeRequest;
+import com.haui.coffee_shop.payload.request.GuestCartRequest;
+import com.haui.coffee_shop.payload.response.GuestCartResponse;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+import com.haui.coffee_shop.security.GuestCartTokenCodec;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItZ3Vlc3QtY2FydC10b2tlbi10ZXN0cw==";
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private ProductItemRepository productItemRepository;
+    @Mock
+    private ProductResponseAssembler productResponseAssembler;
+    @Mock
+    private CartStore cartStore;
+    @Spy
+    private MessageBuilder messageBuilder = new MessageBuilder(new StaticMessageSource());
+    @Spy
+    private GuestCartTokenCodec guestCartTokenCodec = new GuestCartTokenCodec(SECRET, 30, 50);
+
+    @InjectMocks
+    private CartService cartService;
+
+    private final ProductItem activeItem = productItem(5L, Status.ACTIVE);
+    private final ProductItem otherActiveItem = productItem(6L, Status.ACTIVE);
+    private final ProductItem inactiveItem = productItem(7L, Status.INACTIVE);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productItemRepository.findAllById(any()))
+                .thenReturn(List.of(activeItem, otherActiveItem, inactiveItem));
+        lenient().when(productItemRepository.findWithProductByIdIn(any()))
+                .thenReturn(List.of(activeItem, otherActiveItem, inactiveItem));
+    }
+
+    @Test
+    void guestOperationsReissueTheTokenWithTheNewCart() {
+        GuestCartResponse first = (GuestCartResponse) cartService.applyGuestOperations(new GuestCartRequest(null, List.of(
+                new CartOperationRequest(CartOperationType.ADD, 5L, 2),
+                new CartOperationRequest(CartOperationType.SET, 6L, 3)))).getData();
+
+        assertThat(guestCartTokenCodec.decode(first.getCartToken())).containsExactly(Map.entry(5L, 2), Map.entry(6L, 3));
+        assertThat(first.getCart().getTotalQuantity()).isEqualTo(5);
+
+        GuestCartResponse second = (GuestCartResponse) cartService.applyGuestOperations(new GuestCartRequest(first.getCartToken(), List.of(
+                new CartOperationRequest(CartOperationType.ADD, 5L, 1),
+                new CartOperationRequest(CartOperationType.REMOVE, 6L, 0)))).getData();
+
+        assertThat(guestCartTokenCodec.decode(second.getCartToken())).containsExactly(Map.entry(5L, 3));
+        assertThat(second.getCart().getItems()).hasSize(1);
+        verifyNoInteractions(cartStore);
+    }
+
+    @Test
+    void mergeSendsOnlyActiveItemsToMergeMax() {
+        String token = guestCartTokenCodec.encode(Map.of(5L, 2, 7L, 1));
+        when(cartStore.mergeMax(eq(USER_ID), any())).thenReturn(List.of(new CartStore.CartLine(-1, 5L, 2)));
+
+        cartService.mergeGuestCart(new GuestCartMergeRequest(USER_ID, token));
+        cartService.mergeGuestCart(new GuestCartMergeRequest(USER_ID, token));
+
+        verify(cartStore, times(2)).mergeMax(USER_ID, Map.of(5L, 2));
+        verify(cartStore, never()).applyAll(anyLong(), any());
+    }
+
+    @Test
+    void mergingAnEmptyGuestCartOnlyReadsTheUserCart() {
+        when(cartStore.getLines(USER_ID)).thenReturn(List.of());
+
+        cartService.mergeGuestCart(new GuestCartMergeRequest(USER_ID, null));
+
+        verify(cartStore).getLines(USER_ID);
+        verify(cartStore, never()).mergeMax(anyLong(), any());
+    }
+
+    private static ProductItem productItem(long id, Status status) {
+        return ProductItem.builder()
+                .id(id)
+                .price(20)
+                .stock(10)
+                .product(Product.builder().id(100 + id).build())
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,257 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.haui.coffee_shop.model.CartItem;
+import com.haui.coffee_shop.repository.CartItemRepository;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+import com.haui.coffee_shop.repository.UserRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ProductItemRepository productItemRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Bảng cart_item giả: id -> quantity đã ghi
+    private final Map<Long, Integer> persisted = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong(100);
+
+    private CartStore cartStore;
+
+    @BeforeEach
+    void setUp() {
+        cartStore = new CartStore(cartItemRepository, userRepository, productItemRepository, transactionManager, 4, 30);
+        lenient().when(userRepository.existsById(anyLong())).thenReturn(true);
+        lenient().when(cartItemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<CartItem> items = invocation.getArgument(0);
+            for (CartItem item : items) {
+                item.setId(sequence.incrementAndGet());
+                persisted.put(item.getId(), item.getQuantity());
+            }
+            return items;
+        });
+        lenient().when(cartItemRepository.updateQuantity(anyLong(), anyInt())).thenAnswer(invocation -> {
+            persisted.put(invocation.getArgument(0), invocation.getArgument(1));
+            return 1;
+        });
+        lenient().when(cartItemRepository.deleteByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.forEach(persisted::remove);
+            return ids.size();
+        });
+    }
+
+    @Test
+    void newLinesGetUniqueTemporaryIdsUntilFlushed() {
+        CartStore.CartLine first = cartStore.add(USER_ID, 5L, 1);
+        CartStore.CartLine second = cartStore.add(2L, 5L, 1);
+
+        assertThat(first.getId()).isNegative();
+        assertThat(second.getId()).isNegative().isNotEqualTo(first.getId());
+
+        cartStore.flush(USER_ID);
+
+        assertThat(cartStore.getLines(USER_ID)).singleElement()
+                .satisfies(line -> assertThat(line.getId()).isPositive());
+        assertThat(cartStore.getLines(2L).get(0).getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    void flushWritesOnlyTheLatestQuantityOfEachLine() {
+        cartStore.add(USER_ID, 5L, 1);
+        cartStore.add(USER_ID, 5L, 1);
+        cartStore.add(USER_ID, 5L, 1);
+        cartStore.set(USER_ID, 5L, 7);
+
+        cartStore.flush(USER_ID);
+        cartStore.flush(USER_ID);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CartItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cartItemRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(7));
+        verify(cartItemRepository, never()).updateQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    void removedLineIsDeletedOnFlush() {
+        when(cartItemRepository.findLinesByUserId(USER_ID)).thenReturn(List.<Object[]>of(new Object[]{10L, 5L, 2}));
+        persisted.put(10L, 2);
+
+        assertThat(cartStore.remove(USER_ID, 5L)).isTrue();
+        cartStore.flush(USER_ID);
+
+        verify(cartItemRepository).deleteByIdIn(List.of(10L));
+        assertThat(persisted).isEmpty();
+        assertThat(cartStore.getLines(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void lineReAddedWhileItsDeleteIsFlushingIsInsertedAgain() throws Exception {
+        when(cartItemRepository.findLinesByUserId(USER_ID)).thenReturn(List.<Object[]>of(new Object[]{10L, 5L, 2}));
+        persisted.put(10L, 2);
+        CountDownLatch deleting = new CountDownLatch(1);
+        CountDownLatch releaseDelete = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            deleting.countDown();
+            releaseDelete.await();
+            Collection<Long> ids = invocation.getArgument(0);
+            ids.forEach(persisted::remove);
+            return ids.size();
+        }).when(cartItemRepository).deleteByIdIn(any());
+
+        cartStore.remove(USER_ID, 5L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> flushing = executor.submit(() -> cartStore.flush(USER_ID));
+        assertThat(deleting.await(5, TimeUnit.SECONDS)).isTrue();
+        cartStore.add(USER_ID, 5L, 4);
+        releaseDelete.countDown();
+        flushing.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        cartStore.flush(USER_ID);
+
+        verify(cartItemRepository, never()).updateQuantity(eq(10L), anyInt());
+        CartStore.CartLine line = cartStore.getLines(USER_ID).get(0);
+        assertThat(line.getQuantity()).isEqualTo(4);
+        assertThat(line.getId()).isNotEqualTo(10L).isPositive();
+        assertThat(persisted).containsOnly(Map.entry(line.getId(), 4));
+    }
+
+    @Test
+    void updateOfARowDeletedElsewhereBecomesAnInsert() {
+        when(cartItemRepository.findLinesByUserId(USER_ID)).thenReturn(List.<Object[]>of(new Object[]{10L, 5L, 2}));
+        doReturn(0).when(cartItemRepository).updateQuantity(anyLong(), anyInt());
+
+        cartStore.set(USER_ID, 5L, 3);
+        cartStore.flush(USER_ID);
+
+        CartStore.CartLine line = cartStore.getLines(USER_ID).get(0);
+        assertThat(line.getId()).isNotEqualTo(10L).isPositive();
+        assertThat(persisted).containsOnly(Map.entry(line.getId(), 3));
+        assertThat(cartStore.removeById(10L)).isFalse();
+    }
+
+    @Test
+    void removeByIdResolvesTemporaryIds() {
+        CartStore.CartLine line = cartStore.add(USER_ID, 5L, 2);
+
+        assertThat(cartStore.removeById(line.getId())).isTrue();
+        assertThat(cartStore.removeById(line.getId())).isFalse();
+        assertThat(cartStore.getLines(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void mergingTheSameGuestCartTwiceDoesNotAddUp() {
+        cartStore.add(USER_ID, 5L, 3);
+        Map<Long, Integer> guestCart = Map.of(5L, 2, 6L, 4);
+
+        cartStore.mergeMax(USER_ID, guestCart);
+        List<CartStore.CartLine> lines = cartStore.mergeMax(USER_ID, guestCart);
+
+        Map<Long, Integer> quantities = new HashMap<>();
+        lines.forEach(line -> quantities.put(line.getProductItemId(), line.getQuantity()));
+        assertThat(quantities).containsOnly(Map.entry(5L, 3), Map.entry(6L, 4));
+    }
+
+    @Test
+    void failedFlushKeepsLinesDirtyForTheNextFlush() {
+        doThrow(new RuntimeException("database down"))
+                .doAnswer(invocation -> {
+                    List<CartItem> items = invocation.getArgument(0);
+                    items.forEach(item -> item.setId(sequence.incrementAndGet()));
+                    return items;
+                })
+                .when(cartItemRepository).saveAll(any());
+        cartStore.add(USER_ID, 5L, 3);
+
+        cartStore.flush(USER_ID);
+        assertThat(cartStore.getLines(USER_ID).get(0).getId()).isNegative();
+
+        cartStore.flush(USER_ID);
+        verify(cartItemRepository, times(2)).saveAll(any());
+        assertThat(cartStore.getLines(USER_ID).get(0).getId()).isPositive();
+    }
+
+    @Test
+    void flushInsideATransactionIsRejected() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> cartStore.flush(USER_ID)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void concurrentAddsAndFlushesConvergeWithTheDatabase() throws Exception {
+        int threads = 8;
+        int addsPerThread = 500;
+        long[] userIds = {1L, 2L, 3L, 4L, 5L};
+        long[] productItemIds = {11L, 12L, 13L};
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    int n = seed * addsPerThread + i;
+                    cartStore.add(userIds[n % userIds.length], productItemIds[n % productItemIds.length], 1);
+                }
+                return null;
+            }));
+        }
+        // Flush định kỳ chạy song song với các lượt thêm
+        Future<?> flusher = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 50; i++) {
+                cartStore.flushAll();
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        flusher.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        cartStore.flushAll();
+
+        int total = 0;
+        for (long userId : userIds) {
+            for (CartStore.CartLine line : cartStore.getLines(userId)) {
+                assertThat(line.getId()).isPositive();
+                assertThat(persisted.get(line.getId())).isEqualTo(line.getQuantity());
+                total += line.getQuantity();
+            }
+        }
+        assertThat(total).isEqualTo(threads * addsPerThread);
+        assertThat(persisted.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(total);
+    }
+}
@@ -0,0 +1,35 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.haui.coffee_shop.event.ProductSummaryChangedEvent;
+import com.haui.coffee_shop.payload.response.RespMessage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheServiceTest {
+    private final CatalogCacheService catalogCacheService = new CatalogCacheService(100, 600);
+
+    @Test
+    void summaryChangeDropsTheProductAndEveryListing() {
+        String[] keys = {
+                CatalogCacheService.ALL_PRODUCTS_KEY,
+                CatalogCacheService.productKey(1),
+                CatalogCacheService.productKey(2),
+                CatalogCacheService.categoryKey(3),
+                CatalogCacheService.brandKey(4),
+                CatalogCacheService.bestSellingKey("all")
+        };
+        for (String key : keys) {
+            catalogCacheService.get(key, () -> RespMessage.builder().build());
+        }
+
+        catalogCacheService.onProductSummaryChanged(new ProductSummaryChangedEvent(List.of(1L)));
+
+        assertThat(catalogCacheService.getStats().getSize()).isEqualTo(1);
+        catalogCacheService.get(CatalogCacheService.productKey(2), () -> RespMessage.builder().build());
+        assertThat(catalogCacheService.getStats().getHits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,181 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.haui.coffee_shop.repository.ProductItemRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlashSaleQueueTest {
+    private static final long ITEM_A = 1L;
+    private static final long ITEM_B = 2L;
+
+    @Mock
+    private ProductItemRepository productItemRepository;
+
+    // Tồn kho giả của bảng product_item
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    // Chặn lần trừ kho đầu tiên để các lượt sau dồn lại thành một lô
+    private final CountDownLatch writerBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+    private volatile boolean blockFirstCall;
+
+    private FlashSaleQueue flashSaleQueue;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productItemRepository.decrementStockIfAvailable(anyLong(), anyInt())).thenAnswer(invocation -> {
+            if (blockFirstCall) {
+                blockFirstCall = false;
+                writerBlocked.countDown();
+                releaseWriter.await();
+            }
+            long productItemId = invocation.getArgument(0);
+            int amount = invocation.getArgument(1);
+            AtomicInteger available = stock.computeIfAbsent(productItemId, id -> new AtomicInteger());
+            if (available.get() < amount) {
+                return 0;
+            }
+            available.addAndGet(-amount);
+            return 1;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWriter.countDown();
+        if (flashSaleQueue != null) {
+            flashSaleQueue.shutdown();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void queuedAdmissionsForOneItemAreAppliedInOneUpdate() throws Exception {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 1, 64, 5000);
+        stock.put(ITEM_A, new AtomicInteger(100));
+        CompletableFuture<Boolean> first = admitWhileWriterBlocked(ITEM_A, 1);
+
+        List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            queued.add(flashSaleQueue.admit(ITEM_A, 2));
+        }
+        releaseWriter.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        for (CompletableFuture<Boolean> future : queued) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        verify(productItemRepository, times(1)).decrementStockIfAvailable(ITEM_A, 20);
+        verify(productItemRepository, never()).decrementStockIfAvailable(ITEM_A, 2);
+        assertThat(stock.get(ITEM_A).get()).isEqualTo(79);
+    }
+
+    @Test
+    void batchThatExceedsStockIsAdmittedInArrivalOrder() throws Exception {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 1, 64, 5000);
+        stock.put(ITEM_A, new AtomicInteger(5));
+        CompletableFuture<Boolean> first = admitWhileWriterBlocked(ITEM_A, 1);
+
+        CompletableFuture<Boolean> second = flashSaleQueue.admit(ITEM_A, 2);
+        CompletableFuture<Boolean> third = flashSaleQueue.admit(ITEM_A, 2);
+        CompletableFuture<Boolean> fourth = flashSaleQueue.admit(ITEM_A, 2);
+        releaseWriter.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(third.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fourth.get(5, TimeUnit.SECONDS)).isFalse();
+        verify(productItemRepository).decrementStockIfAvailable(ITEM_A, 6);
+        assertThat(stock.get(ITEM_A).get()).isZero();
+    }
+
+    @Test
+    void admitAllRestoresAdmittedItemsWhenAnotherIsSoldOut() {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 2, 64, 5000);
+        stock.put(ITEM_A, new AtomicInteger(10));
+        stock.put(ITEM_B, new AtomicInteger(0));
+
+        assertThat(flashSaleQueue.admitAll(orderedAmounts(ITEM_A, 2, ITEM_B, 1))).isFalse();
+
+        verify(productItemRepository, timeout(5000)).incrementStock(Map.of(ITEM_A, 2));
+    }
+
+    @Test
+    void admitAllRestoresStockWhenTheOrderRollsBack() {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 2, 64, 5000);
+        stock.put(ITEM_A, new AtomicInteger(10));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(flashSaleQueue.admitAll(orderedAmounts(ITEM_A, 2))).isTrue();
+        verify(productItemRepository, never()).incrementStock(any());
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(productItemRepository, timeout(5000)).incrementStock(Map.of(ITEM_A, 2));
+    }
+
+    @Test
+    void admitAllKeepsStockWhenTheOrderCommits() throws Exception {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 2, 64, 5000);
+        stock.put(ITEM_A, new AtomicInteger(10));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(flashSaleQueue.admitAll(orderedAmounts(ITEM_A, 2))).isTrue();
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        Thread.sleep(200);
+        verify(productItemRepository, never()).incrementStock(any());
+        assertThat(stock.get(ITEM_A).get()).isEqualTo(8);
+    }
+
+    @Test
+    void admissionThatSucceedsAfterTheTimeoutIsRestored() throws Exception {
+        flashSaleQueue = new FlashSaleQueue(productItemRepository, 1, 64, 100);
+        stock.put(ITEM_A, new AtomicInteger(10));
+        blockFirstCall = true;
+
+        assertThat(flashSaleQueue.admitAll(orderedAmounts(ITEM_A, 3))).isFalse();
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(productItemRepository, never()).incrementStock(any());
+
+        releaseWriter.countDown();
+        verify(productItemRepository, timeout(5000)).incrementStock(Map.of(ITEM_A, 3));
+    }
+
+    // Gửi một lượt và đợi tới khi writer đang xử lý nó, các lượt gửi sau sẽ nằm chờ trong hàng đợi
+    private CompletableFuture<Boolean> admitWhileWriterBlocked(long productItemId, int amount) throws InterruptedException {
+        blockFirstCall = true;
+        CompletableFuture<Boolean> future = flashSaleQueue.admit(productItemId, amount);
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        return future;
+    }
+
+    private Map<Long, Integer> orderedAmounts(Object... pairs) {
+        Map<Long, Integer> amounts = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            amounts.put((Long) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return amounts;
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
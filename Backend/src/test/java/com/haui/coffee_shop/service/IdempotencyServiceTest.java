@@ -0,0 +1,93 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.model.IdempotencyRecord;
+import com.haui.coffee_shop.payload.request.OrderItemRequest;
+import com.haui.coffee_shop.payload.request.OrderRequest;
+import com.haui.coffee_shop.payload.response.RespMessage;
+import com.haui.coffee_shop.repository.IdempotencyRecordRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    private static final String KEY = "key-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final MessageBuilder messageBuilder = new MessageBuilder(new StaticMessageSource());
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, messageBuilder, 100, 24);
+        lenient().when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void sameKeyAndSameRequestReplaysTheFirstResponse() {
+        ResponseEntity<RespMessage> first = idempotencyService.execute(KEY, "order", order(2), this::placeOrder);
+        ResponseEntity<RespMessage> second = idempotencyService.execute(KEY, "order", order(2), this::placeOrder);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getBody().getData().toString()).isEqualTo(first.getBody().getData().toString());
+    }
+
+    @Test
+    void sameKeyWithADifferentRequestIsRejected() {
+        idempotencyService.execute(KEY, "order", order(2), this::placeOrder);
+
+        ResponseEntity<RespMessage> response = idempotencyService.execute(KEY, "order", order(3), this::placeOrder);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void fingerprintIsPersistedAndCheckedAfterARestart() {
+        idempotencyService.execute(KEY, "order", order(2), this::placeOrder);
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(captor.capture());
+        IdempotencyRecord record = captor.getValue();
+        assertThat(record.getRequestHash()).hasSize(64);
+
+        // Bộ nhớ đệm mới, chỉ còn bản ghi trong DB
+        IdempotencyService restarted = new IdempotencyService(idempotencyRecordRepository, messageBuilder, 100, 24);
+        record.setExpiresAt(new Date(System.currentTimeMillis() + 60_000));
+        when(idempotencyRecordRepository.findById(record.getRecordKey())).thenReturn(Optional.of(record));
+
+        assertThat(restarted.execute(KEY, "order", order(3), this::placeOrder).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(restarted.execute(KEY, "order", order(2), this::placeOrder).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    private ResponseEntity<RespMessage> placeOrder() {
+        return new ResponseEntity<>(messageBuilder.buildSuccessMessage(runs.incrementAndGet()), HttpStatus.OK);
+    }
+
+    private static OrderRequest order(int amount) {
+        return new OrderRequest(List.of(new OrderItemRequest(5L, amount, 20, 0)), 1L, null, null);
+    }
+}
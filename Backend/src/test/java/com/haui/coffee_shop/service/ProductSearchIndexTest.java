@@ -0,0 +1,154 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.haui.coffee_shop.common.enums.Status;
+import com.haui.coffee_shop.event.ProductChangedEvent;
+import com.haui.coffee_shop.model.Brand;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void queryWithoutAccentsMatchesAccentedText() {
+        index(product(1L, "Cà Phê Sữa Đá", null, null));
+
+        assertThat(productSearchIndex.search("ca phe sua da", 10)).containsExactly(1L);
+        assertThat(productSearchIndex.search("CÀ PHÊ", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void onlyTheLastTermMatchesAsAPrefix() {
+        index(product(1L, "Arabica Cầu Đất", null, null),
+                product(2L, "Robusta Buôn Ma Thuột", null, null));
+
+        assertThat(productSearchIndex.search("arab", 10)).containsExactly(1L);
+        assertThat(productSearchIndex.search("cau da", 10)).containsExactly(1L);
+        assertThat(productSearchIndex.search("arab cau", 10)).isEmpty();
+        assertThat(productSearchIndex.search("robusta buon ma th", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index(product(1L, "Arabica Đà Lạt", null, null),
+                product(2L, "Robusta Đà Lạt", null, null));
+
+        assertThat(productSearchIndex.search("da lat", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(productSearchIndex.search("robusta lat", 10)).containsExactly(2L);
+        assertThat(productSearchIndex.search("robusta arabica", 10)).isEmpty();
+    }
+
+    @Test
+    void nameMatchRanksAboveBrandAboveDescription() {
+        index(product(1L, "Hộp quà", null, "Hạt moka rang mộc"),
+                product(2L, "Hộp quà", "Moka", null),
+                product(3L, "Moka Cầu Đất", null, null));
+
+        assertThat(productSearchIndex.search("moka", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(productSearchIndex.search("moka", 2)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void shorterDocumentWinsForTheSameMatch() {
+        index(product(1L, "Cà phê rang xay", null, null),
+                product(2L, "Cà phê phin", null, null),
+                product(3L, "Cà phê hạt", null, null),
+                product(4L, "Trà phin", null, null));
+
+        // Cùng một lần khớp thì tài liệu ngắn hơn được điểm cao hơn (chuẩn hóa độ dài của BM25)
+        assertThat(productSearchIndex.search("phin", 10)).containsExactly(4L, 2L);
+        assertThat(productSearchIndex.search("ca phin", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void inactiveProductsAreNotIndexedAndChangesAreApplied() {
+        Product inactive = product(2L, "Moka hết hàng", null, null);
+        inactive.setStatus(Status.INACTIVE);
+        Product active = product(1L, "Moka", null, null);
+        index(active, inactive);
+        assertThat(productSearchIndex.search("moka", 10)).containsExactly(1L);
+
+        active.setName("Culi");
+        when(productRepository.findById(1L)).thenReturn(Optional.of(active));
+        productSearchIndex.onProductChanged(new ProductChangedEvent(active));
+
+        assertThat(productSearchIndex.search("moka", 10)).isEmpty();
+        assertThat(productSearchIndex.search("cul", 10)).containsExactly(1L);
+        assertThat(productSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void searchOverOneHundredThousandProductsStaysFast() {
+        String[] origins = {"Đà Lạt", "Cầu Đất", "Buôn Ma Thuột", "Sơn La", "Gia Lai", "Khe Sanh", "Lâm Đồng", "Đắk Nông"};
+        String[] beans = {"Arabica", "Robusta", "Culi", "Moka", "Catimor", "Bourbon", "Typica", "Excelsa"};
+        String[] forms = {"rang xay", "hạt nguyên", "phin giấy", "hòa tan", "cold brew", "espresso"};
+        List<Product> products = new ArrayList<>(100_000);
+        for (int i = 1; i <= 100_000; i++) {
+            Product product = product(i, beans[i % beans.length] + " " + origins[i / 8 % origins.length] + " " + forms[i % forms.length]
+                    + " lô " + i, null, "Cà phê " + beans[i % beans.length] + " trồng tại " + origins[i % origins.length]);
+            product.setOrigin(origins[i % origins.length]);
+            products.add(product);
+        }
+        index(products.toArray(new Product[0]));
+        assertThat(productSearchIndex.size()).isEqualTo(100_000);
+
+        String[] queries = {"arabica da lat", "robusta buon ma", "moka cau dat hoa", "lo 4242", "culi son la phin", "espr"};
+        for (int i = 0; i < 50; i++) {
+            for (String query : queries) {
+                productSearchIndex.search(query, 20);
+            }
+        }
+        int rounds = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (String query : queries) {
+                assertThat(productSearchIndex.search(query, 20)).isNotEmpty();
+            }
+        }
+        double averageMillis = (System.nanoTime() - start) / 1_000_000.0 / (rounds * queries.length);
+
+        // Từ cuối khớp tiền tố: 4242 và 42420..42429
+        assertThat(productSearchIndex.search("lo 4242", 20)).hasSize(11).contains(4242L);
+        // Ngưỡng rộng để không chập chờn trên máy CI chậm; truy vấn LIKE '%kw%' cũ quét toàn bảng ở mỗi lần gõ
+        assertThat(averageMillis).isLessThan(100.0);
+    }
+
+    private void index(Product... products) {
+        when(productRepository.findAll()).thenReturn(List.of(products));
+        productSearchIndex.rebuild();
+    }
+
+    private static Product product(long id, String name, String brand, String description) {
+        Brand productBrand = null;
+        if (brand != null) {
+            productBrand = new Brand();
+            productBrand.setName(brand);
+        }
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .brand(productBrand)
+                .description(description)
+                .status(Status.ACTIVE)
+                .build();
+    }
+}
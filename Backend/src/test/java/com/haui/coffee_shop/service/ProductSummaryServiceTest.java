@@ -0,0 +1,134 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.haui.coffee_shop.event.ProductSummaryChangedEvent;
+import com.haui.coffee_shop.model.OrderItem;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductItem;
+import com.haui.coffee_shop.repository.OrderItemRepository;
+import com.haui.coffee_shop.repository.ProductRepository;
+import com.haui.coffee_shop.repository.ProductSummaryRepository;
+import com.haui.coffee_shop.repository.ReviewRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSummaryServiceTest {
+    private static final long HOT_PRODUCT = 100L;
+
+    @Mock
+    private ProductSummaryRepository productSummaryRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductSummaryService productSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productSummaryRepository.addTotalSold(anyLong(), anyInt())).thenReturn(1);
+        lenient().when(productSummaryRepository.updatePriceRange(anyLong(), anyDouble(), anyDouble())).thenReturn(1);
+    }
+
+    @Test
+    void deferredOrdersAreAppliedAsOneUpdatePerProduct() {
+        productSummaryService.deferOrderPlaced(List.of(orderItem(HOT_PRODUCT, 1)));
+        productSummaryService.deferOrderPlaced(List.of(orderItem(HOT_PRODUCT, 2), orderItem(HOT_PRODUCT, 3)));
+        verifyNoInteractions(productSummaryRepository);
+
+        productSummaryService.applyPending();
+        productSummaryService.applyPending();
+
+        verify(productSummaryRepository, times(1)).addTotalSold(HOT_PRODUCT, 6);
+        verify(productRepository, times(1)).findPriceRangeByProductIds(any());
+    }
+
+    @Test
+    void deferredPriceRangeIsRefreshedOnceAndAnnounced() {
+        productSummaryService.deferPriceRangeRefresh(List.of(HOT_PRODUCT));
+        productSummaryService.deferPriceRangeRefresh(List.of(HOT_PRODUCT));
+
+        productSummaryService.applyPending();
+        productSummaryService.applyPending();
+
+        verify(productSummaryRepository, times(1)).updatePriceRange(eq(HOT_PRODUCT), anyDouble(), anyDouble());
+        ArgumentCaptor<ProductSummaryChangedEvent> captor = ArgumentCaptor.forClass(ProductSummaryChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getProductIds()).isEqualTo(Set.of(HOT_PRODUCT));
+    }
+
+    @Test
+    void reviewDeltaIsAnnounced() {
+        when(productSummaryRepository.addReview(HOT_PRODUCT, 4.0)).thenReturn(1);
+
+        productSummaryService.onReviewAdded(HOT_PRODUCT, 4.0);
+
+        verify(eventPublisher).publishEvent(any(ProductSummaryChangedEvent.class));
+    }
+
+    @Test
+    void failedApplyKeepsTheDeltaForTheNextRun() {
+        doThrow(new RuntimeException("database down")).doReturn(1)
+                .when(productSummaryRepository).addTotalSold(anyLong(), anyInt());
+        productSummaryService.deferOrderPlaced(List.of(orderItem(HOT_PRODUCT, 2)));
+
+        productSummaryService.applyPending();
+        productSummaryService.deferOrderPlaced(List.of(orderItem(HOT_PRODUCT, 1)));
+        productSummaryService.applyPending();
+
+        verify(productSummaryRepository).addTotalSold(HOT_PRODUCT, 3);
+    }
+
+    @Test
+    void cancelledOrderIsSubtractedRightAway() {
+        productSummaryService.onOrderCancelled(List.of(orderItem(HOT_PRODUCT, 2), orderItem(HOT_PRODUCT, 1)));
+
+        verify(productSummaryRepository).addTotalSold(HOT_PRODUCT, -3);
+    }
+
+    @Test
+    void rebuildIsRecomputedInTheDatabase() {
+        productSummaryService.rebuild(List.of(HOT_PRODUCT));
+
+        verify(productSummaryRepository).rebuild(List.of(HOT_PRODUCT));
+        verify(productSummaryRepository, never()).saveAll(any());
+        verify(eventPublisher).publishEvent(any(ProductSummaryChangedEvent.class));
+    }
+
+    @Test
+    void rebuildAllDropsPendingDeltasItAlreadyCounted() {
+        when(productRepository.findAllIds()).thenReturn(List.of(HOT_PRODUCT));
+        productSummaryService.deferOrderPlaced(List.of(orderItem(HOT_PRODUCT, 2)));
+
+        productSummaryService.rebuildAll();
+        productSummaryService.applyPending();
+
+        verify(productSummaryRepository).rebuild(List.of(HOT_PRODUCT));
+        verify(productSummaryRepository, never()).addTotalSold(anyLong(), anyInt());
+    }
+
+    private static OrderItem orderItem(long productId, int amount) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductItem(ProductItem.builder().product(Product.builder().id(productId).build()).build());
+        orderItem.setAmount(amount);
+        return orderItem;
+    }
+}
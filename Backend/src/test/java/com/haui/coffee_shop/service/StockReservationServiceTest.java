@@ -0,0 +1,85 @@
+package com.haui.coffee_shop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.haui.coffee_shop.common.Constant;
+import com.haui.coffee_shop.common.enums.ReservationStatus;
+import com.haui.coffee_shop.config.MessageBuilder;
+import com.haui.coffee_shop.exception.CoffeeShopException;
+import com.haui.coffee_shop.model.Product;
+import com.haui.coffee_shop.model.ProductItem;
+import com.haui.coffee_shop.model.StockReservation;
+import com.haui.coffee_shop.repository.ProductItemRepository;
+import com.haui.coffee_shop.repository.StockReservationRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+    private static final String TOKEN = "token-1";
+    private static final String OWNER = "owner@gmail.com";
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+    @Mock
+    private ProductItemRepository productItemRepository;
+    @Mock
+    private MessageBuilder messageBuilder;
+    @Mock
+    private ProductSummaryService productSummaryService;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        StockReservation reservation = StockReservation.builder()
+                .token(TOKEN)
+                .productItem(ProductItem.builder().id(5L).product(Product.builder().id(100L).build()).build())
+                .amount(3)
+                .userEmail(OWNER)
+                .status(ReservationStatus.ACTIVE)
+                .expiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        when(stockReservationRepository.findByStatus(ReservationStatus.ACTIVE)).thenReturn(List.of(reservation));
+        lenient().when(stockReservationRepository.closeActive(TOKEN, ReservationStatus.CONVERTED)).thenReturn(1);
+        stockReservationService.loadActiveHolds();
+    }
+
+    @Test
+    void holdIsConvertedForItsOwner() {
+        Map<Long, Integer> covered = stockReservationService.consume(TOKEN, OWNER, Map.of(5L, 2));
+
+        assertThat(covered).containsOnly(Map.entry(5L, 2));
+        verify(productItemRepository).incrementStock(Map.of(5L, 1));
+    }
+
+    @Test
+    void consumeWithoutAUserIsRejected() {
+        assertRejected(null);
+    }
+
+    @Test
+    void consumeByAnotherUserIsRejected() {
+        assertRejected("other@gmail.com");
+    }
+
+    private void assertRejected(String userEmail) {
+        assertThatThrownBy(() -> stockReservationService.consume(TOKEN, userEmail, Map.of(5L, 2)))
+                .isInstanceOf(CoffeeShopException.class)
+                .extracting("code").isEqualTo(Constant.UNAUTHORIZED);
+        verify(stockReservationRepository, never()).closeActive(anyString(), any());
+        assertThat(stockReservationService.getHeldAmounts(TOKEN, OWNER)).containsOnly(Map.entry(5L, 3));
+    }
+}